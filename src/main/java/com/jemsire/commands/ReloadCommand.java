@@ -33,14 +33,14 @@ public class ReloadCommand extends CommandBase {
 
         // Reload main config
         int oldInterval = plugin.getAnnouncementConfig().get().getIntervalSeconds();
-        boolean oldRandomization = plugin.getAnnouncementConfig().get().isEnableRandomization();
+        String oldOrderType = plugin.getAnnouncementConfig().get().getOrderType();
         
         plugin.getAnnouncementConfig().load();
         
         int newInterval = plugin.getAnnouncementConfig().get().getIntervalSeconds();
-        boolean newRandomization = plugin.getAnnouncementConfig().get().isEnableRandomization();
+        String newOrderType = plugin.getAnnouncementConfig().get().getOrderType();
         
-        boolean configChanged = (oldInterval != newInterval || oldRandomization != newRandomization);
+        boolean configChanged = (oldInterval != newInterval || !oldOrderType.equals(newOrderType));
         
         // Re-scan messages directory so new .json files are registered before reload
         plugin.discoverAndRegisterNewMessageConfigs();
@@ -48,10 +48,8 @@ public class ReloadCommand extends CommandBase {
         // Reload messages
         MessageLoader.reloadMessages();
         
-        // Restart scheduler if config changed or if it needs to be restarted
-        if (configChanged || AnnouncementScheduler.isRunning()) {
-            AnnouncementScheduler.restart();
-        }
+        // Apply the new interval and schedules in place (keeps the rotation position and timing)
+        AnnouncementScheduler.reconfigure();
         
         if(configChanged){
             context.sendMessage(Message.raw("Configuration and messages reloaded with new values!").color(Color.GREEN));
@@ -3,6 +3,9 @@ package com.jemsire.config;
 import com.hypixel.hytale.codec.Codec;
 import com.hypixel.hytale.codec.KeyedCodec;
 import com.hypixel.hytale.codec.builder.BuilderCodec;
+import com.hypixel.hytale.codec.codecs.array.ArrayCodec;
+
+import java.util.Locale;
 
 /**
  * Main configuration for the announcement plugin.
@@ -10,11 +13,23 @@ import com.hypixel.hytale.codec.builder.BuilderCodec;
  */
 public class AnnouncementConfig {
     private int intervalSeconds = 300; // Default: 5 minutes
+    private int deliveryWindowMillis = 0; // Default: 0 = deliver to everyone at once
+    private int maxRecipientsPerTick = 0; // Default: 0 = no limit
+    private boolean adaptiveDelivery = false; // Default: fixed batch size
+    private String deliveryBackend = "WORLD"; // Default: WORLD (WORLD, VIRTUAL_THREADS)
+    private int maxConcurrentSends = 64; // Default: 64 (VIRTUAL_THREADS backend only)
+    private int recipientTimeoutMillis = 1000; // Default: 1 second per player, 0 = no deadline
+    private int recipientFailureThreshold = 3; // Default: skip a player after 3 failed deliveries in a row
+    private int recipientCooldownSeconds = 60; // Default: skip for 1 minute
     private boolean enableRandomization = false; // Default: sequential order (false = sequential, true = random)
+    private String orderType = ""; // Default: "" = from EnableRandomization (SEQUENTIAL, RANDOM, SHUFFLE, WEIGHTED)
     private boolean createExampleMessages = true; // Default: true
     private String logLevel = "INFO"; // Default: INFO (INFO, DEBUG, NONE)
     private int version = 1;
     private boolean updateCheck = true;
+    private int gradientMaxSegments = 0; // Default: 0 = one color per character
+    private boolean combineChatLines = false; // Default: one chat message per line
+    private String[] globalPlaceholders = {"jemannouncements_", "server_"}; // Placeholder prefixes resolved once per broadcast
 
     public AnnouncementConfig() {
     }
@@ -28,6 +43,62 @@ public class AnnouncementConfig {
                     )
                     .add()
 
+                    .append(
+                            new KeyedCodec<Integer>("DeliveryWindowMillis", Codec.INTEGER),
+                            (config, value, info) -> config.deliveryWindowMillis = value != null ? value : 0,
+                            (config, info) -> config.deliveryWindowMillis
+                    )
+                    .add()
+
+                    .append(
+                            new KeyedCodec<Integer>("MaxRecipientsPerTick", Codec.INTEGER),
+                            (config, value, info) -> config.maxRecipientsPerTick = value != null ? value : 0,
+                            (config, info) -> config.maxRecipientsPerTick
+                    )
+                    .add()
+
+                    .append(
+                            new KeyedCodec<Boolean>("AdaptiveDelivery", Codec.BOOLEAN),
+                            (config, value, info) -> config.adaptiveDelivery = value != null ? value : false,
+                            (config, info) -> config.adaptiveDelivery
+                    )
+                    .add()
+
+                    .append(
+                            new KeyedCodec<String>("DeliveryBackend", Codec.STRING),
+                            (config, value, info) -> config.deliveryBackend = value != null ? value : "WORLD",
+                            (config, info) -> config.deliveryBackend
+                    )
+                    .add()
+
+                    .append(
+                            new KeyedCodec<Integer>("MaxConcurrentSends", Codec.INTEGER),
+                            (config, value, info) -> config.maxConcurrentSends = value != null ? value : 64,
+                            (config, info) -> config.maxConcurrentSends
+                    )
+                    .add()
+
+                    .append(
+                            new KeyedCodec<Integer>("RecipientTimeoutMillis", Codec.INTEGER),
+                            (config, value, info) -> config.recipientTimeoutMillis = value != null ? value : 1000,
+                            (config, info) -> config.recipientTimeoutMillis
+                    )
+                    .add()
+
+                    .append(
+                            new KeyedCodec<Integer>("RecipientFailureThreshold", Codec.INTEGER),
+                            (config, value, info) -> config.recipientFailureThreshold = value != null ? value : 3,
+                            (config, info) -> config.recipientFailureThreshold
+                    )
+                    .add()
+
+                    .append(
+                            new KeyedCodec<Integer>("RecipientCooldownSeconds", Codec.INTEGER),
+                            (config, value, info) -> config.recipientCooldownSeconds = value != null ? value : 60,
+                            (config, info) -> config.recipientCooldownSeconds
+                    )
+                    .add()
+
                     .append(
                             new KeyedCodec<Boolean>("EnableRandomization", Codec.BOOLEAN),
                             (config, value, info) -> config.enableRandomization = value != null ? value : false,
@@ -35,6 +106,13 @@ public class AnnouncementConfig {
                     )
                     .add()
 
+                    .append(
+                            new KeyedCodec<String>("OrderType", Codec.STRING),
+                            (config, value, info) -> config.orderType = value != null ? value : "",
+                            (config, info) -> config.orderType
+                    )
+                    .add()
+
                     .append(
                             new KeyedCodec<Boolean>("CreateExampleMessages", Codec.BOOLEAN),
                             (config, value, info) -> config.createExampleMessages = value != null ? value : true,
@@ -63,16 +141,84 @@ public class AnnouncementConfig {
                     )
                     .add()
 
+                    .append(
+                            new KeyedCodec<Integer>("GradientMaxSegments", Codec.INTEGER),
+                            (config, value, info) -> config.gradientMaxSegments = value != null ? value : 0,
+                            (config, info) -> config.gradientMaxSegments
+                    )
+                    .add()
+
+                    .append(
+                            new KeyedCodec<Boolean>("CombineChatLines", Codec.BOOLEAN),
+                            (config, value, info) -> config.combineChatLines = value != null ? value : false,
+                            (config, info) -> config.combineChatLines
+                    )
+                    .add()
+
+                    .append(
+                            new KeyedCodec<String[]>("GlobalPlaceholders",
+                                    new ArrayCodec<>(Codec.STRING, String[]::new)),
+                            (config, value, info) -> {
+                                if (value != null) {
+                                    config.globalPlaceholders = value;
+                                }
+                            },
+                            (config, info) -> config.globalPlaceholders
+                    )
+                    .add()
+
                     .build();
 
     public int getIntervalSeconds() {
         return intervalSeconds;
     }
 
+    public int getDeliveryWindowMillis() {
+        return deliveryWindowMillis;
+    }
+
+    public int getMaxRecipientsPerTick() {
+        return maxRecipientsPerTick;
+    }
+
+    public boolean isAdaptiveDelivery() {
+        return adaptiveDelivery;
+    }
+
+    public String getDeliveryBackend() {
+        return deliveryBackend;
+    }
+
+    public int getMaxConcurrentSends() {
+        return maxConcurrentSends;
+    }
+
+    public int getRecipientTimeoutMillis() {
+        return recipientTimeoutMillis;
+    }
+
+    public int getRecipientFailureThreshold() {
+        return recipientFailureThreshold;
+    }
+
+    public int getRecipientCooldownSeconds() {
+        return recipientCooldownSeconds;
+    }
+
     public boolean isEnableRandomization() {
         return enableRandomization;
     }
 
+    /**
+     * Gets the rotation order (upper case); without an OrderType, RANDOM or SEQUENTIAL depending on EnableRandomization
+     */
+    public String getOrderType() {
+        if (orderType == null || orderType.isBlank()) {
+            return enableRandomization ? "RANDOM" : "SEQUENTIAL";
+        }
+        return orderType.trim().toUpperCase(Locale.ROOT);
+    }
+
     public boolean isCreateExampleMessages() {
         return createExampleMessages;
     }
@@ -88,4 +234,16 @@ public class AnnouncementConfig {
     public boolean checkUpdates() {
         return updateCheck;
     }
+
+    public int getGradientMaxSegments() {
+        return gradientMaxSegments;
+    }
+
+    public boolean isCombineChatLines() {
+        return combineChatLines;
+    }
+
+    public String[] getGlobalPlaceholders() {
+        return globalPlaceholders;
+    }
 }
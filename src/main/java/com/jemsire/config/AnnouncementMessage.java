@@ -20,11 +20,20 @@ import java.util.List;
 public class AnnouncementMessage {
     private String[] chatMessages = new String[0]; // Chat messages array (sent in order)
     private boolean centerChat = true; // Whether to center chat messages (default: true)
+    private Boolean combineChatLines = null; // Send all chat lines as one message (null = use the main config)
     private NotificationConfig notification = null; // Notification configuration (title, subtitle, icon)
     private TitleConfig title = null; // Title/subtitle configuration
     private SoundConfig sound = null; // Sound configuration
     private int priority = 0; // Higher priority messages are shown first (optional)
+    private Integer weight = null; // Relative chance in random order (null = use the priority)
     private boolean enabled = true; // Whether this message is enabled
+    private String[] worlds = new String[0]; // Only send to players in these worlds (empty = all worlds)
+    private String permission = null; // Only send to players with this permission (null = everyone)
+    private int minPlayers = 0; // Only send when at least this many players are in the targeted worlds
+    private int maxPlayers = 0; // Only send when at most this many players are in the targeted worlds (0 = no limit)
+    private int intervalSeconds = 0; // Own schedule: send every N seconds, outside the main rotation (0 = part of the rotation)
+    private Integer initialDelaySeconds = null; // Delay before the first send on its own schedule (null = one interval)
+    private String cron = null; // Own schedule: 5-field cron expression, outside the main rotation (null = none)
 
     public AnnouncementMessage() {
     }
@@ -71,6 +80,13 @@ public class AnnouncementMessage {
                     )
                     .add()
 
+                    .append(
+                            new KeyedCodec<Integer>("Weight", Codec.INTEGER),
+                            (config, value, info) -> config.weight = value,
+                            (config, info) -> config.weight
+                    )
+                    .add()
+
                     .append(
                             new KeyedCodec<Boolean>("Center", Codec.BOOLEAN),
                             (config, value, info) -> config.centerChat = value != null ? value : true,
@@ -78,6 +94,13 @@ public class AnnouncementMessage {
                     )
                     .add()
 
+                    .append(
+                            new KeyedCodec<Boolean>("CombineChatLines", Codec.BOOLEAN),
+                            (config, value, info) -> config.combineChatLines = value,
+                            (config, info) -> config.combineChatLines
+                    )
+                    .add()
+
                     .append(
                             new KeyedCodec<Boolean>("Enabled", Codec.BOOLEAN),
                             (config, value, info) -> config.enabled = value != null ? value : true,
@@ -85,6 +108,56 @@ public class AnnouncementMessage {
                     )
                     .add()
 
+                    .append(
+                            new KeyedCodec<String[]>("Worlds",
+                                    new ArrayCodec<>(Codec.STRING, String[]::new)),
+                            (config, value, info) -> config.worlds = value != null ? value : new String[0],
+                            (config, info) -> config.worlds
+                    )
+                    .add()
+
+                    .append(
+                            new KeyedCodec<String>("Permission", Codec.STRING),
+                            (config, value, info) -> config.permission = value,
+                            (config, info) -> config.permission
+                    )
+                    .add()
+
+                    .append(
+                            new KeyedCodec<Integer>("MinPlayers", Codec.INTEGER),
+                            (config, value, info) -> config.minPlayers = value != null ? value : 0,
+                            (config, info) -> config.minPlayers
+                    )
+                    .add()
+
+                    .append(
+                            new KeyedCodec<Integer>("MaxPlayers", Codec.INTEGER),
+                            (config, value, info) -> config.maxPlayers = value != null ? value : 0,
+                            (config, info) -> config.maxPlayers
+                    )
+                    .add()
+
+                    .append(
+                            new KeyedCodec<Integer>("IntervalSeconds", Codec.INTEGER),
+                            (config, value, info) -> config.intervalSeconds = value != null ? value : 0,
+                            (config, info) -> config.intervalSeconds
+                    )
+                    .add()
+
+                    .append(
+                            new KeyedCodec<Integer>("InitialDelaySeconds", Codec.INTEGER),
+                            (config, value, info) -> config.initialDelaySeconds = value,
+                            (config, info) -> config.initialDelaySeconds
+                    )
+                    .add()
+
+                    .append(
+                            new KeyedCodec<String>("Cron", Codec.STRING),
+                            (config, value, info) -> config.cron = value,
+                            (config, info) -> config.cron
+                    )
+                    .add()
+
                     .build();
 
     /**
@@ -107,8 +180,25 @@ public class AnnouncementMessage {
                 msg.chatMessages = list.toArray(new String[0]);
             }
             msg.centerChat = !root.has("Center") || root.get("Center").isJsonNull() || root.get("Center").getAsBoolean();
+            msg.combineChatLines = root.has("CombineChatLines") && !root.get("CombineChatLines").isJsonNull() ? root.get("CombineChatLines").getAsBoolean() : null;
             msg.priority = root.has("Priority") && !root.get("Priority").isJsonNull() ? root.get("Priority").getAsInt() : 0;
+            msg.weight = root.has("Weight") && !root.get("Weight").isJsonNull() ? root.get("Weight").getAsInt() : null;
             msg.enabled = !root.has("Enabled") || root.get("Enabled").isJsonNull() || root.get("Enabled").getAsBoolean();
+            if (root.has("Worlds") && root.get("Worlds").isJsonArray()) {
+                List<String> worlds = new ArrayList<>();
+                for (JsonElement e : root.getAsJsonArray("Worlds")) {
+                    if (!e.isJsonNull()) {
+                        worlds.add(e.getAsString());
+                    }
+                }
+                msg.worlds = worlds.toArray(new String[0]);
+            }
+            msg.permission = root.has("Permission") && !root.get("Permission").isJsonNull() ? root.get("Permission").getAsString() : null;
+            msg.minPlayers = root.has("MinPlayers") && !root.get("MinPlayers").isJsonNull() ? root.get("MinPlayers").getAsInt() : 0;
+            msg.maxPlayers = root.has("MaxPlayers") && !root.get("MaxPlayers").isJsonNull() ? root.get("MaxPlayers").getAsInt() : 0;
+            msg.intervalSeconds = root.has("IntervalSeconds") && !root.get("IntervalSeconds").isJsonNull() ? root.get("IntervalSeconds").getAsInt() : 0;
+            msg.initialDelaySeconds = root.has("InitialDelaySeconds") && !root.get("InitialDelaySeconds").isJsonNull() ? root.get("InitialDelaySeconds").getAsInt() : null;
+            msg.cron = root.has("Cron") && !root.get("Cron").isJsonNull() ? root.get("Cron").getAsString() : null;
             if (root.has("Notification") && root.get("Notification").isJsonObject()) {
                 JsonObject n = root.getAsJsonObject("Notification");
                 String title = n.has("Title") && !n.get("Title").isJsonNull() ? n.get("Title").getAsString() : "";
@@ -161,6 +251,13 @@ public class AnnouncementMessage {
         return priority;
     }
 
+    /**
+     * Relative chance of this message in random order: Weight if set, otherwise Priority (at least 1)
+     */
+    public int getWeight() {
+        return Math.max(1, weight != null ? weight : priority);
+    }
+
     public boolean hasChatMessages() {
         return chatMessages != null && chatMessages.length > 0;
     }
@@ -181,10 +278,63 @@ public class AnnouncementMessage {
         return centerChat;
     }
 
+    /**
+     * Whether to send all chat lines as one message, or null to use the main config's CombineChatLines
+     */
+    public Boolean getCombineChatLines() {
+        return combineChatLines;
+    }
+
     public boolean isEnabled() {
         return enabled;
     }
 
+    /**
+     * Names of the worlds this message is sent in (empty = all worlds)
+     */
+    public String[] getWorlds() {
+        return worlds;
+    }
+
+    /**
+     * Permission a player needs to receive this message, or null
+     */
+    public String getPermission() {
+        return permission;
+    }
+
+    public int getMinPlayers() {
+        return minPlayers;
+    }
+
+    /**
+     * Maximum number of players in the targeted worlds for this message to be sent (0 = no limit)
+     */
+    public int getMaxPlayers() {
+        return maxPlayers;
+    }
+
+    /**
+     * Seconds between sends on this message's own schedule (0 = part of the main rotation)
+     */
+    public int getIntervalSeconds() {
+        return intervalSeconds;
+    }
+
+    /**
+     * Seconds before the first send on this message's own interval, or null for one interval
+     */
+    public Integer getInitialDelaySeconds() {
+        return initialDelaySeconds;
+    }
+
+    /**
+     * Cron expression for this message's own schedule, or null
+     */
+    public String getCron() {
+        return cron;
+    }
+
     /**
      * Notification configuration for notification messages (similar to item pickup notifications)
      */
@@ -1,8 +1,16 @@
 package com.jemsire.plugin;
 
+import com.hypixel.hytale.assetstore.event.LoadedAssetsEvent;
 import com.hypixel.hytale.common.semver.Semver;
+import com.hypixel.hytale.server.core.asset.type.item.config.Item;
+import com.hypixel.hytale.server.core.asset.type.soundevent.config.SoundEvent;
+import com.hypixel.hytale.server.core.event.events.player.AddPlayerToWorldEvent;
+import com.hypixel.hytale.server.core.event.events.player.DrainPlayerFromWorldEvent;
+import com.hypixel.hytale.server.core.event.events.player.PlayerConnectEvent;
+import com.hypixel.hytale.server.core.event.events.player.PlayerDisconnectEvent;
 import com.hypixel.hytale.server.core.plugin.JavaPlugin;
 import com.hypixel.hytale.server.core.plugin.JavaPluginInit;
+import com.hypixel.hytale.server.core.universe.PlayerRef;
 import com.hypixel.hytale.server.core.util.Config;
 import com.jemsire.commands.AnnounceCommand;
 import com.jemsire.commands.ReloadCommand;
@@ -11,8 +19,14 @@ import com.jemsire.config.AnnouncementMessage;
 import com.jemsire.expansion.JemAnnouncementsExpansion;
 import com.jemsire.jemplaceholders.api.JemPlaceholdersAPI;
 import com.jemsire.utils.AnnouncementScheduler;
+import com.jemsire.utils.AssetCache;
+import com.jemsire.utils.AudienceIndex;
+import com.jemsire.utils.DeliveryPacer;
 import com.jemsire.utils.Logger;
 import com.jemsire.utils.MessageLoader;
+import com.jemsire.utils.MessageSender;
+import com.jemsire.utils.RecipientCircuitBreaker;
+import com.jemsire.utils.RotationState;
 import com.jemsire.utils.UpdateChecker;
 
 import javax.annotation.Nonnull;
@@ -176,6 +190,10 @@ public class AnnouncementPlugin extends JavaPlugin {
         // Register commands
         registerCommands();
 
+        // Re-resolve notification icons and sounds when game assets are reloaded, track online players
+        registerEvents();
+        AudienceIndex.rebuild();
+
         // Save config (creates default if doesn't exist)
         announcementConfig.save();
         Logger.info("Config saved.");
@@ -183,6 +201,11 @@ public class AnnouncementPlugin extends JavaPlugin {
         // Load messages from the messages folder
         MessageLoader.loadMessages();
 
+        // Continue the rotation where the previous run left off
+        RotationState.open(this.getDataDirectory().resolve("rotation-state.bin"));
+        MessageLoader.restoreRotationState();
+        AnnouncementScheduler.restoreRotationState();
+
         // Start the announcement scheduler
         AnnouncementScheduler.start();
 
@@ -191,9 +214,14 @@ public class AnnouncementPlugin extends JavaPlugin {
 
     @Override
     protected void start() {
-        //if (isJemPlaceholdersEnabled()) {
-        //    JemPlaceholdersAPI.registerExpansion(new JemAnnouncementsExpansion());
-        //}
+        if (isJemPlaceholdersEnabled()) {
+            try {
+                JemPlaceholdersAPI.registerExpansion(new JemAnnouncementsExpansion());
+                Logger.info("Registered %jemannouncements_...% placeholders.");
+            } catch (Exception | LinkageError e) {
+                Logger.warning("Failed to register JemAnnouncements placeholders: " + e.getMessage());
+            }
+        }
 
         if(announcementConfig.get().checkUpdates()){
             new UpdateChecker(version.toString()).checkForUpdatesAsync();
@@ -210,6 +238,10 @@ public class AnnouncementPlugin extends JavaPlugin {
 
         // Stop the scheduler
         AnnouncementScheduler.stop();
+        DeliveryPacer.shutdown();
+        MessageSender.shutdown();
+        AudienceIndex.clear();
+        RotationState.close();
 
         // Shutdown updater
         if(announcementConfig.get().checkUpdates()){
@@ -234,6 +266,34 @@ public class AnnouncementPlugin extends JavaPlugin {
         Logger.info("Commands registered.");
     }
 
+    private void registerEvents() {
+        this.getEventRegistry().register(LoadedAssetsEvent.class, Item.class, event -> onAssetsReloaded());
+        this.getEventRegistry().register(LoadedAssetsEvent.class, SoundEvent.class, event -> onAssetsReloaded());
+
+        // Keep the audience index in step with players joining, leaving and changing worlds
+        this.getEventRegistry().register(PlayerConnectEvent.class,
+                event -> AudienceIndex.addToWorld(event.getPlayerRef(), event.getWorld()));
+        this.getEventRegistry().register(PlayerDisconnectEvent.class, event -> {
+            PlayerRef player = event.getPlayerRef();
+            AudienceIndex.remove(player);
+            if (player != null) {
+                RecipientCircuitBreaker.forget(player.getUuid());
+            }
+        });
+        this.getEventRegistry().registerGlobal(AddPlayerToWorldEvent.class,
+                event -> AudienceIndex.addToWorld(event.getHolder().getComponent(PlayerRef.getComponentType()), event.getWorld()));
+        this.getEventRegistry().registerGlobal(DrainPlayerFromWorldEvent.class,
+                event -> AudienceIndex.removeFromWorld(event.getHolder().getComponent(PlayerRef.getComponentType()), event.getWorld()));
+    }
+
+    /**
+     * Drops cached icons and sound indices and recompiles the loaded messages against the new assets
+     */
+    private void onAssetsReloaded() {
+        AssetCache.invalidate();
+        MessageLoader.recompileMessages();
+    }
+
     /**
      * Gets the announcement configuration
      */
@@ -0,0 +1,81 @@
+package com.jemsire.utils;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Weighted random sampling in constant time with the alias method (Vose).
+ * Built once from the weights in O(n); each sample takes one random column and one biased coin flip.
+ */
+public final class AliasTable {
+    private final double[] probability; // Chance of keeping the column's own index
+    private final int[] alias; // Index used when the coin flip fails
+
+    /**
+     * @param weights Weight per index; values below 1 count as 1
+     */
+    public AliasTable(int[] weights) {
+        int n = weights.length;
+        probability = new double[n];
+        alias = new int[n];
+        if (n == 0) {
+            return;
+        }
+
+        long total = 0;
+        for (int weight : weights) {
+            total += Math.max(1, weight);
+        }
+
+        // Scale so the average column is exactly 1, then pair each under-full column with an over-full one
+        double[] scaled = new double[n];
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int i = 0; i < n; i++) {
+            scaled[i] = (double) Math.max(1, weights[i]) * n / total;
+            if (scaled[i] < 1.0) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+            probability[less] = scaled[less];
+            alias[less] = more;
+            scaled[more] = (scaled[more] + scaled[less]) - 1.0;
+            if (scaled[more] < 1.0) {
+                small[smallCount++] = more;
+            } else {
+                large[largeCount++] = more;
+            }
+        }
+        // Whatever is left is full up to rounding error
+        while (largeCount > 0) {
+            probability[large[--largeCount]] = 1.0;
+        }
+        while (smallCount > 0) {
+            probability[small[--smallCount]] = 1.0;
+        }
+    }
+
+    /**
+     * Draws an index with probability proportional to its weight
+     *
+     * @return The index, or -1 if the table is empty
+     */
+    public int sample(RandomGenerator random) {
+        int n = probability.length;
+        if (n == 0) {
+            return -1;
+        }
+        int column = random.nextInt(n);
+        return random.nextDouble() < probability[column] ? column : alias[column];
+    }
+
+    public int size() {
+        return probability.length;
+    }
+}
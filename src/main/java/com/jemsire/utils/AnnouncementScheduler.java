@@ -1,10 +1,17 @@
 package com.jemsire.utils;
 
 import com.jemsire.config.AnnouncementConfig;
-import com.jemsire.config.AnnouncementMessage;
 import com.jemsire.plugin.AnnouncementPlugin;
 
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
@@ -13,6 +20,8 @@ import java.util.concurrent.atomic.AtomicInteger;
 /**
  * Schedules and manages announcement messages based on configuration.
  * Handles both sequential and random ordering.
+ * All timers (the main rotation and messages with their own IntervalSeconds or Cron) live on one {@link TimingWheel}
+ * that the scheduler thread advances once per second.
  */
 public class AnnouncementScheduler {
     private AnnouncementScheduler() {
@@ -20,8 +29,36 @@ public class AnnouncementScheduler {
     }
     private static ScheduledExecutorService scheduler;
     private static ScheduledFuture<?> scheduledTask;
+    private static TimingWheel wheel;
+    // Pending timers; only touched on the scheduler thread once it is running
+    private static TimingWheel.Timer rotationTimer;
+    private static int rotationIntervalSeconds;
+    // Last-send tick of something that has not been sent yet
+    private static final long NEVER = Long.MIN_VALUE;
+    private static long rotationLastSentTick = NEVER;
+    private static final Map<String, MessageTimer> messageTimers = new HashMap<>();
     private static final AtomicInteger sequentialIndex = new AtomicInteger(0);
     private static boolean isRunning = false;
+
+    /**
+     * Pending send of a message on its own schedule, with the schedule it was planned with
+     *
+     * @param anchorTick Tick of the previous send if sent, otherwise the tick the wait for the first send started at
+     */
+    private record MessageTimer(TimingWheel.Timer timer, int intervalSeconds, String cron, Integer initialDelaySeconds,
+                                long anchorTick, boolean sent) {}
+
+    // OrderType values
+    private static final String ORDER_RANDOM = "RANDOM";
+    private static final String ORDER_SHUFFLE = "SHUFFLE";
+    private static final String ORDER_WEIGHTED = "WEIGHTED";
+
+    // RotationState key for the main rotation's last send (message keys are file names, which end in .json)
+    static final String ROTATION_KEY = "<rotation>";
+
+    // One wheel tick per second; one turn of the wheel covers 512 seconds, longer delays wait for extra turns
+    private static final long TICK_SECONDS = 1;
+    private static final int WHEEL_SLOTS = 512;
     
     /**
      * Starts the announcement scheduler
@@ -53,18 +90,32 @@ public class AnnouncementScheduler {
         });
         
         AnnouncementConfig config = plugin.getAnnouncementConfig().get();
-        int intervalSeconds = config.getIntervalSeconds();
+        int intervalSeconds = Math.max(1, config.getIntervalSeconds());
+        
+        // Send the first rotation announcement immediately (or one interval after the last one before a restart),
+        // then repeat at intervals
+        wheel = new TimingWheel(WHEEL_SLOTS);
+        rotationLastSentTick = lastSentTick(ROTATION_KEY, 0);
+        scheduleRotation(wheel, remainingSeconds(ROTATION_KEY, intervalSeconds, 0), intervalSeconds);
+        int scheduledCount = 0;
+        for (CompiledMessage message : MessageLoader.getScheduledMessages()) {
+            long firstDelay = remainingSeconds(message.name(), message.source().getIntervalSeconds(), firstDelaySeconds(message));
+            long lastSent = lastSentTick(message.name(), 0);
+            if (scheduleMessage(wheel, message.name(), firstDelay, null, lastSent != NEVER ? lastSent : 0, lastSent != NEVER)) {
+                scheduledCount++;
+            }
+        }
         
-        // Schedule the first announcement immediately, then repeat at intervals
         scheduledTask = scheduler.scheduleAtFixedRate(
-            AnnouncementScheduler::sendNextAnnouncement,
-            0, // Initial delay: send immediately
-            intervalSeconds,
+            wheel::tick,
+            0,
+            TICK_SECONDS,
             TimeUnit.SECONDS
         );
         
         isRunning = true;
-        Logger.info("Announcement scheduler started with interval of " + intervalSeconds + " seconds");
+        Logger.info("Announcement scheduler started with interval of " + intervalSeconds + " seconds"
+                + (scheduledCount > 0 ? " and " + scheduledCount + " message(s) on their own schedule" : ""));
     }
     
     /**
@@ -92,25 +143,222 @@ public class AnnouncementScheduler {
             }
             scheduler = null;
         }
+        if (wheel != null) {
+            wheel.clear();
+            wheel = null;
+        }
+        rotationTimer = null;
+        rotationLastSentTick = NEVER;
+        messageTimers.clear();
         
         isRunning = false;
         Logger.info("Announcement scheduler stopped");
     }
     
     /**
-     * Restarts the scheduler (useful after config reload)
+     * Applies a reloaded config and message set in place (useful after config reload); starts the scheduler if it is not running.
+     * The scheduler thread, pending timers and rotation position are kept: a new IntervalSeconds moves the next rotation send
+     * to one new interval after the previous send, and only messages whose own schedule changed are rescheduled.
+     * A changed InitialDelaySeconds applies to messages that have not been sent since the scheduler started, counted from
+     * when they started waiting.
+     * Returns right away; the change is applied on the scheduler thread between two ticks.
      */
-    public static void restart() {
-        stop();
-        // Small delay to ensure cleanup
+    public static void reconfigure() {
+        if (!isRunning) {
+            start();
+            return;
+        }
         try {
-            Thread.sleep(100);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
+            scheduler.execute(AnnouncementScheduler::applyReconfiguration);
+        } catch (RejectedExecutionException e) {
+            Logger.warning("Could not reconfigure the announcement scheduler: " + e.getMessage());
         }
-        start();
+    }
+
+    /**
+     * Runs on the scheduler thread, so no timer fires while timers are being replaced
+     */
+    private static void applyReconfiguration() {
+        AnnouncementPlugin plugin = AnnouncementPlugin.get();
+        if (plugin == null || wheel == null) {
+            return;
+        }
+        long now = wheel.currentTick();
+
+        int intervalSeconds = Math.max(1, plugin.getAnnouncementConfig().get().getIntervalSeconds());
+        if (intervalSeconds != rotationIntervalSeconds && rotationTimer != null) {
+            long delay;
+            if (rotationLastSentTick != NEVER) {
+                // Keep the phase: one new interval after the previous send (right away if that has already passed)
+                delay = Math.max(0, rotationLastSentTick + intervalSeconds / TICK_SECONDS - now);
+            } else {
+                // Nothing sent yet: the first send stays where it is, the ones after it use the new interval
+                delay = Math.max(0, rotationTimer.deadline() - now);
+            }
+            wheel.cancel(rotationTimer);
+            scheduleRotation(wheel, delay * TICK_SECONDS, intervalSeconds);
+        }
+
+        int rescheduled = 0;
+        Set<String> names = new HashSet<>();
+        for (CompiledMessage message : MessageLoader.getScheduledMessages()) {
+            String name = message.name();
+            names.add(name);
+            int messageInterval = message.source().getIntervalSeconds();
+            String cron = message.cron() != null ? message.cron().toString() : null;
+            Integer initialDelay = message.source().getInitialDelaySeconds();
+            MessageTimer pending = messageTimers.get(name);
+            if (pending != null && pending.intervalSeconds() == messageInterval && Objects.equals(pending.cron(), cron)
+                    && (pending.sent() || Objects.equals(pending.initialDelaySeconds(), initialDelay))) {
+                continue; // Same schedule; the timer picks up the reloaded message when it fires
+            }
+            long delay;
+            long anchor;
+            boolean sent;
+            if (pending != null) {
+                wheel.cancel(pending.timer());
+                anchor = pending.anchorTick();
+                sent = pending.sent();
+                // One new interval after the previous send; before the first send, the new first delay from when it started waiting
+                long wait = sent ? messageInterval : firstDelaySeconds(message);
+                delay = Math.max(0, anchor + wait / TICK_SECONDS - now) * TICK_SECONDS;
+            } else {
+                long lastSent = lastSentTick(name, now);
+                sent = lastSent != NEVER;
+                anchor = sent ? lastSent : now;
+                delay = remainingSeconds(name, messageInterval, firstDelaySeconds(message));
+            }
+            scheduleMessage(wheel, name, delay, null, anchor, sent);
+            rescheduled++;
+        }
+        // Messages that were removed, disabled or moved back into the rotation
+        int removed = 0;
+        for (var iterator = messageTimers.entrySet().iterator(); iterator.hasNext(); ) {
+            Map.Entry<String, MessageTimer> entry = iterator.next();
+            if (!names.contains(entry.getKey())) {
+                wheel.cancel(entry.getValue().timer());
+                iterator.remove();
+                removed++;
+            }
+        }
+
+        Logger.info("Announcement scheduler reconfigured with interval of " + intervalSeconds + " seconds ("
+                + rescheduled + " schedule(s) updated, " + removed + " removed)");
     }
     
+    /**
+     * Schedules the next run of the main rotation; each run schedules the one after it
+     */
+    private static void scheduleRotation(TimingWheel wheel, long delaySeconds, int intervalSeconds) {
+        rotationIntervalSeconds = intervalSeconds;
+        rotationTimer = wheel.schedule(delaySeconds / TICK_SECONDS, () -> {
+            rotationLastSentTick = wheel.currentTick();
+            scheduleRotation(wheel, intervalSeconds, intervalSeconds);
+            RotationState.writeLastFired(ROTATION_KEY, System.currentTimeMillis());
+            sendNextAnnouncement();
+        });
+    }
+
+    /**
+     * Schedules the next send of a message that has its own schedule
+     *
+     * @param cronTarget The time the previous send was planned for by its Cron, or null
+     * @param anchorTick Tick of the previous send if sent, otherwise the tick the wait for the first send started at
+     * @return False if the message has no upcoming send
+     */
+    private static boolean scheduleMessage(TimingWheel wheel, String name, long delaySeconds, ZonedDateTime cronTarget,
+                                           long anchorTick, boolean sent) {
+        CompiledMessage message = MessageLoader.getMessage(name);
+        ZonedDateTime target = null;
+        if (message != null && message.cron() != null) {
+            // Count from the previous target, so a tick that lands just before it does not send twice
+            ZonedDateTime now = ZonedDateTime.now();
+            target = message.cron().next(cronTarget != null && cronTarget.isAfter(now) ? cronTarget : now);
+            if (target == null) {
+                Logger.warning("Cron '" + message.cron() + "' of " + name + " never matches, message will not be sent");
+                messageTimers.remove(name);
+                return false;
+            }
+            delaySeconds = (Duration.between(now, target).toMillis() + 999) / 1000;
+        }
+        if (delaySeconds < 0) {
+            messageTimers.remove(name);
+            return false;
+        }
+        ZonedDateTime sendTarget = target;
+        TimingWheel.Timer timer = wheel.schedule(delaySeconds / TICK_SECONDS, () -> sendScheduledMessage(wheel, name, sendTarget));
+        messageTimers.put(name, new MessageTimer(timer, message != null ? message.source().getIntervalSeconds() : 0,
+                message != null && message.cron() != null ? message.cron().toString() : null,
+                message != null ? message.source().getInitialDelaySeconds() : null, anchorTick, sent));
+        return true;
+    }
+
+    /**
+     * Sends a message on its own schedule and schedules its next send.
+     * The message is looked up again so reloaded or recompiled content is used.
+     */
+    private static void sendScheduledMessage(TimingWheel wheel, String name, ZonedDateTime cronTarget) {
+        CompiledMessage message = MessageLoader.getMessage(name);
+        if (message == null || !message.hasOwnSchedule()) {
+            messageTimers.remove(name);
+            return; // Removed or moved back into the rotation
+        }
+        scheduleMessage(wheel, name, message.source().getIntervalSeconds(), cronTarget, wheel.currentTick(), true);
+        RotationState.writeLastFired(name, System.currentTimeMillis());
+        if (!message.audience().isReachable()) {
+            Logger.debug("Skipping scheduled announcement " + name + ", no matching players");
+            return;
+        }
+        Logger.debug("Sending scheduled announcement " + name);
+        MessageSender.sendAnnouncement(message);
+    }
+
+    /**
+     * Time left of an interval that started with a send before the last restart (see {@link RotationState})
+     *
+     * @param fallback Delay to use if nothing was sent before
+     */
+    private static long remainingSeconds(String key, int intervalSeconds, long fallback) {
+        long lastFired = RotationState.lastFired(key);
+        if (lastFired <= 0 || intervalSeconds <= 0) {
+            return fallback;
+        }
+        long elapsedSeconds = (System.currentTimeMillis() - lastFired) / 1000;
+        return Math.max(0, Math.min(intervalSeconds, intervalSeconds - elapsedSeconds));
+    }
+
+    /**
+     * Wheel tick of the last send before the last restart (see {@link RotationState}), or NEVER if there was none
+     *
+     * @param now The current wheel tick
+     */
+    private static long lastSentTick(String key, long now) {
+        long lastFired = RotationState.lastFired(key);
+        if (lastFired <= 0) {
+            return NEVER;
+        }
+        long elapsedSeconds = Math.max(0, (System.currentTimeMillis() - lastFired) / 1000);
+        return now - elapsedSeconds / TICK_SECONDS;
+    }
+
+    /**
+     * Continues the sequential rotation from the saved {@link RotationState}
+     */
+    public static void restoreRotationState() {
+        RotationState.Snapshot state = RotationState.snapshot();
+        if (state != null) {
+            sequentialIndex.set(state.sequentialIndex());
+        }
+    }
+
+    /**
+     * Delay before the first send of a message on its own interval: InitialDelaySeconds, or one interval
+     */
+    private static long firstDelaySeconds(CompiledMessage message) {
+        Integer initialDelay = message.source().getInitialDelaySeconds();
+        return initialDelay != null ? Math.max(0, initialDelay) : message.source().getIntervalSeconds();
+    }
+
     /**
      * Sends the next announcement based on the configured order type
      */
@@ -123,26 +371,27 @@ public class AnnouncementScheduler {
             
             AnnouncementConfig config = plugin.getAnnouncementConfig().get();
             
-            int messageCount = MessageLoader.getMessageCount();
+            int messageCount = MessageLoader.getRotationMessageCount();
             if (messageCount == 0) {
-                Logger.warning("No messages available to send");
-                return;
+                if (MessageLoader.getMessageCount() == 0) {
+                    Logger.warning("No messages available to send");
+                }
+                return; // Every message has its own schedule
             }
             
-            AnnouncementMessage message;
-            
-            if (config.isEnableRandomization()) {
-                // Get random message
-                message = MessageLoader.getRandomMessage();
-            } else {
-                // Get next sequential message
-                int currentIndex = sequentialIndex.getAndIncrement();
-                message = MessageLoader.getNextSequentialMessage(currentIndex);
+            // Messages targeted at worlds (or player counts) that nobody currently matches give their turn to the next one
+            CompiledMessage message = nextMessage(config);
+            for (int attempt = 1; message != null && !message.audience().isReachable() && attempt < messageCount; attempt++) {
+                Logger.debug("Skipping announcement " + message.name() + ", no matching players");
+                message = nextMessage(config);
+            }
+            if (message != null && !message.audience().isReachable()) {
+                Logger.debug("No announcement has matching players, skipping this interval");
+                return;
             }
             
             if (message != null) {
-                String orderType = config.isEnableRandomization() ? "random" : "sequential";
-                Logger.debug("Sending announcement message (order: " + orderType + ")");
+                Logger.debug("Sending announcement message (order: " + config.getOrderType().toLowerCase() + ")");
                 MessageSender.sendAnnouncement(message);
                 Logger.debug("Announcement sent successfully");
             } else {
@@ -153,6 +402,24 @@ public class AnnouncementScheduler {
         }
     }
     
+    /**
+     * Picks the next message in the configured order
+     */
+    private static CompiledMessage nextMessage(AnnouncementConfig config) {
+        return switch (config.getOrderType()) {
+            case ORDER_RANDOM -> MessageLoader.getRandomMessage(); // Weighted random
+            case ORDER_SHUFFLE -> MessageLoader.getShuffledMessage();
+            case ORDER_WEIGHTED -> MessageLoader.getWeightedMessage(); // Smooth weighted round-robin
+            default -> nextSequentialMessage(); // SEQUENTIAL
+        };
+    }
+
+    private static CompiledMessage nextSequentialMessage() {
+        int currentIndex = sequentialIndex.getAndIncrement();
+        RotationState.writeSequentialIndex(currentIndex + 1);
+        return MessageLoader.getNextSequentialMessage(currentIndex);
+    }
+    
     /**
      * Checks if the scheduler is currently running
      */
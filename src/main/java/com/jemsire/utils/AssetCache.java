@@ -0,0 +1,73 @@
+package com.jemsire.utils;
+
+import com.hypixel.hytale.protocol.ItemWithAllMetadata;
+import com.hypixel.hytale.server.core.asset.type.soundevent.config.SoundEvent;
+import com.hypixel.hytale.server.core.inventory.ItemStack;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches resolved assets used by announcements: notification icon packets by item ID and sound event indices by name.
+ * Each ID is resolved once; an unresolvable one is reported once and remembered as missing, so compiling
+ * many messages (or recompiling them) does not retry or log again. Cleared when the game assets are reloaded.
+ */
+public final class AssetCache {
+    private AssetCache() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    private static final Map<String, Optional<ItemWithAllMetadata>> ICONS = new ConcurrentHashMap<>();
+    private static final Map<String, Integer> SOUNDS = new ConcurrentHashMap<>();
+
+    /**
+     * Gets the notification icon packet for an item
+     *
+     * @param itemId The item ID
+     * @param label  What uses the icon, for the log message if it cannot be resolved
+     * @return The icon packet, or null if the item could not be resolved
+     */
+    public static ItemWithAllMetadata icon(String itemId, String label) {
+        return ICONS.computeIfAbsent(itemId, id -> {
+            try {
+                return Optional.of(new ItemStack(id, 1).toPacket());
+            } catch (Exception e) {
+                Logger.warning("Failed to create notification icon '" + id + "' for " + label + ": " + e.getMessage());
+                return Optional.empty();
+            }
+        }).orElse(null);
+    }
+
+    /**
+     * Gets the index of a sound event
+     *
+     * @param soundName The sound event name
+     * @param label     What uses the sound, for the log message if it cannot be resolved
+     * @return The SoundEvent index, or -1 if the sound could not be resolved
+     */
+    public static int soundIndex(String soundName, String label) {
+        return SOUNDS.computeIfAbsent(soundName, name -> {
+            int index;
+            try {
+                index = SoundEvent.getAssetMap().getIndex(name);
+            } catch (Exception e) {
+                Logger.warning("Failed to resolve sound '" + name + "' for " + label + ": " + e.getMessage());
+                return -1;
+            }
+            if (index < 0) {
+                Logger.warning("Unknown sound '" + name + "' in " + label + ", sound will not be played");
+                return -1;
+            }
+            return index;
+        });
+    }
+
+    /**
+     * Forgets every resolved and missing asset, e.g. after the game assets were reloaded
+     */
+    public static void invalidate() {
+        ICONS.clear();
+        SOUNDS.clear();
+    }
+}
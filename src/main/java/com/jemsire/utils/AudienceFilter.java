@@ -0,0 +1,154 @@
+package com.jemsire.utils;
+
+import com.hypixel.hytale.server.core.universe.PlayerRef;
+import com.hypixel.hytale.server.core.universe.world.World;
+import com.jemsire.config.AnnouncementMessage;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Who a message is sent to, compiled from its Worlds, Permission, MinPlayers and MaxPlayers fields.
+ * Works on the per-world groups of {@link AudienceIndex}: worlds that are not targeted are skipped as a whole,
+ * and a required permission selects from the index's partition for that permission, so only recipients are looked at.
+ */
+public final class AudienceFilter {
+    /** Sends to every online player */
+    public static final AudienceFilter EVERYONE = new AudienceFilter(Set.of(), null, 0, 0);
+
+    private final Set<String> worlds; // Lower-case world names; empty = all worlds
+    private final String permission; // null = no permission required
+    private final int minPlayers;
+    private final int maxPlayers; // 0 = no limit
+
+    private AudienceFilter(Set<String> worlds, String permission, int minPlayers, int maxPlayers) {
+        this.worlds = worlds;
+        this.permission = permission;
+        this.minPlayers = minPlayers;
+        this.maxPlayers = maxPlayers;
+    }
+
+    /**
+     * Compiles the targeting fields of a message
+     */
+    public static AudienceFilter of(AnnouncementMessage message) {
+        Set<String> worlds = new HashSet<>();
+        if (message.getWorlds() != null) {
+            for (String world : message.getWorlds()) {
+                if (world != null && !world.isBlank()) {
+                    worlds.add(world.trim().toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+        String permission = message.getPermission() != null && !message.getPermission().isBlank()
+                ? message.getPermission().trim() : null;
+        int minPlayers = Math.max(0, message.getMinPlayers());
+        int maxPlayers = Math.max(0, message.getMaxPlayers());
+        if (worlds.isEmpty() && permission == null && minPlayers == 0 && maxPlayers == 0) {
+            return EVERYONE;
+        }
+        return new AudienceFilter(Set.copyOf(worlds), permission, minPlayers, maxPlayers);
+    }
+
+    public boolean isEveryone() {
+        return this == EVERYONE;
+    }
+
+    /**
+     * Checks whether a world is targeted (players without a world only match when no worlds are listed)
+     */
+    public boolean acceptsWorld(World world) {
+        if (worlds.isEmpty()) {
+            return true;
+        }
+        return world != null && world.getName() != null && worlds.contains(world.getName().toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Checks the MinPlayers/MaxPlayers range against the number of players in the targeted worlds
+     */
+    public boolean acceptsPlayerCount(int players) {
+        return players >= minPlayers && (maxPlayers == 0 || players <= maxPlayers);
+    }
+
+    /**
+     * Cheap check, without per-player permission lookups, whether the message would currently reach anyone:
+     * someone is in a targeted world, the player count is in range and, if a permission is required, one of them holds it.
+     * Always true while the audience index is not running.
+     */
+    public boolean isReachable() {
+        if (isEveryone() || !AudienceIndex.isReady()) {
+            return true;
+        }
+        int players = 0;
+        for (AudienceIndex.WorldAudience audience : AudienceIndex.byWorld()) {
+            if (acceptsWorld(audience.world())) {
+                players += audience.players().length;
+            }
+        }
+        if (players == 0 || !acceptsPlayerCount(players)) {
+            return false;
+        }
+        return permission == null || !permitted(AudienceIndex.byPermission(permission)).isEmpty();
+    }
+
+    /**
+     * Selects the recipients from players grouped by world
+     *
+     * @return The matching groups (arrays are shared unless the index is not running and a permission is required);
+     * empty if the player count is out of range
+     */
+    public List<AudienceIndex.WorldAudience> select(List<AudienceIndex.WorldAudience> audiences) {
+        if (isEveryone()) {
+            return audiences;
+        }
+        List<AudienceIndex.WorldAudience> selected = new ArrayList<>(audiences.size());
+        int players = 0;
+        for (AudienceIndex.WorldAudience audience : audiences) {
+            if (acceptsWorld(audience.world())) {
+                selected.add(audience);
+                players += audience.players().length;
+            }
+        }
+        if (!acceptsPlayerCount(players)) {
+            return List.of();
+        }
+        if (permission == null) {
+            return selected;
+        }
+        if (AudienceIndex.isReady()) {
+            return permitted(AudienceIndex.byPermission(permission));
+        }
+
+        // No index: check every player in the targeted worlds
+        List<AudienceIndex.WorldAudience> permitted = new ArrayList<>(selected.size());
+        for (AudienceIndex.WorldAudience audience : selected) {
+            List<PlayerRef> allowed = new ArrayList<>(audience.players().length);
+            for (PlayerRef player : audience.players()) {
+                if (AudienceIndex.hasPermission(player, permission)) {
+                    allowed.add(player);
+                }
+            }
+            if (!allowed.isEmpty()) {
+                permitted.add(new AudienceIndex.WorldAudience(audience.world(), allowed.toArray(new PlayerRef[0])));
+            }
+        }
+        return permitted;
+    }
+
+    /**
+     * The groups of a permission partition that are in a targeted world
+     */
+    private List<AudienceIndex.WorldAudience> permitted(List<AudienceIndex.WorldAudience> partition) {
+        List<AudienceIndex.WorldAudience> permitted = new ArrayList<>(partition.size());
+        for (AudienceIndex.WorldAudience audience : partition) {
+            if (acceptsWorld(audience.world())) {
+                permitted.add(audience);
+            }
+        }
+        return permitted;
+    }
+}
@@ -0,0 +1,270 @@
+package com.jemsire.utils;
+
+import com.hypixel.hytale.server.core.permissions.PermissionsModule;
+import com.hypixel.hytale.server.core.universe.PlayerRef;
+import com.hypixel.hytale.server.core.universe.Universe;
+import com.hypixel.hytale.server.core.universe.world.World;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Online players grouped by world, kept up to date from player events (connect, disconnect, world changes)
+ * instead of being rebuilt from {@link Universe#getPlayers()} for every broadcast.
+ * For each permission that messages target there is a second partition with only the players holding it, also grouped by world.
+ * No event reports permission changes, so these partitions are rebuilt every 30 seconds and may be that much out of date.
+ * Each group holds a copy-on-write array: updates replace the array, readers use it without locking or copying.
+ */
+public final class AudienceIndex {
+    private AudienceIndex() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    private static final PlayerRef[] NO_PLAYERS = new PlayerRef[0];
+
+    private static final Map<UUID, World> WORLD_OF = new ConcurrentHashMap<>();
+    private static final Map<World, PlayerRef[]> BY_WORLD = new ConcurrentHashMap<>();
+    // How long a permission partition is used before it is rebuilt; permission changes take up to this long to apply
+    private static final long PERMISSION_REFRESH_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private static final Map<String, PermissionPartition> BY_PERMISSION = new ConcurrentHashMap<>();
+    private static volatile int size = 0;
+    private static volatile boolean ready = false;
+
+    /**
+     * The players of one world at the time of the snapshot. The array must not be modified.
+     */
+    public record WorldAudience(World world, PlayerRef[] players) {}
+
+    /**
+     * The online players holding one permission, grouped by world
+     */
+    private record PermissionPartition(Map<World, PlayerRef[]> byWorld, long builtAt) {
+        boolean isExpired() {
+            return System.nanoTime() - builtAt > PERMISSION_REFRESH_NANOS;
+        }
+    }
+
+    /**
+     * Rebuilds the index from the players currently online (e.g. when the plugin starts while players are connected)
+     */
+    public static synchronized void rebuild() {
+        clear();
+        Universe universe = Universe.get();
+        if (universe == null) {
+            return;
+        }
+        for (PlayerRef player : universe.getPlayers()) {
+            UUID worldUuid = player.getWorldUuid();
+            World world = worldUuid != null ? universe.getWorld(worldUuid) : null;
+            if (world != null) {
+                addToWorld(player, world);
+            }
+        }
+        ready = true;
+        Logger.debug("Audience index built with " + size + " player(s) in " + BY_WORLD.size() + " world(s)");
+    }
+
+    /**
+     * Empties the index; until the next {@link #rebuild()} it is not {@link #isReady() ready}
+     */
+    public static synchronized void clear() {
+        ready = false;
+        WORLD_OF.clear();
+        BY_WORLD.clear();
+        BY_PERMISSION.clear();
+        size = 0;
+    }
+
+    /**
+     * Whether the index is being maintained; if not, callers should fall back to {@link Universe#getPlayers()}
+     */
+    public static boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Records that a player entered a world (on connect or world change)
+     */
+    public static synchronized void addToWorld(PlayerRef player, World world) {
+        if (player == null || world == null) {
+            return;
+        }
+        UUID uuid = player.getUuid();
+        World previous = WORLD_OF.put(uuid, world);
+        if (previous == world) {
+            return;
+        }
+        if (previous != null) {
+            removeFrom(BY_WORLD, previous, uuid);
+        } else {
+            size++;
+        }
+        BY_WORLD.merge(world, new PlayerRef[]{player}, AudienceIndex::concat);
+
+        // Permissions are looked up again on every world change
+        for (Map.Entry<String, PermissionPartition> entry : BY_PERMISSION.entrySet()) {
+            PermissionPartition partition = entry.getValue();
+            if (partition.isExpired()) {
+                BY_PERMISSION.remove(entry.getKey()); // Rebuilt on next use; dropped for good if no message targets it anymore
+                continue;
+            }
+            if (previous != null) {
+                removeFrom(partition.byWorld(), previous, uuid);
+            }
+            if (hasPermission(player, entry.getKey())) {
+                partition.byWorld().merge(world, new PlayerRef[]{player}, AudienceIndex::concat);
+            }
+        }
+    }
+
+    /**
+     * Records that a player left a world (e.g. while being moved to another one)
+     */
+    public static synchronized void removeFromWorld(PlayerRef player, World world) {
+        if (player == null) {
+            return;
+        }
+        UUID uuid = player.getUuid();
+        if (world != null && !WORLD_OF.remove(uuid, world)) {
+            return; // Already moved on to another world
+        }
+        if (world == null) {
+            world = WORLD_OF.remove(uuid);
+            if (world == null) {
+                return;
+            }
+        }
+        removeFrom(BY_WORLD, world, uuid);
+        for (PermissionPartition partition : BY_PERMISSION.values()) {
+            removeFrom(partition.byWorld(), world, uuid);
+        }
+        size--;
+    }
+
+    /**
+     * Forgets a player completely (on disconnect)
+     */
+    public static synchronized void remove(PlayerRef player) {
+        if (player == null) {
+            return;
+        }
+        removeFromWorld(player, null);
+    }
+
+    /**
+     * Snapshot of the players grouped by world, skipping empty worlds
+     */
+    public static List<WorldAudience> byWorld() {
+        return snapshot(BY_WORLD);
+    }
+
+    /**
+     * Snapshot of the players holding a permission, grouped by world and skipping empty worlds.
+     * Permissions are looked up when the partition is built (on first use, then again every 30 seconds so changes are
+     * picked up) and when a player connects or changes world, never per broadcast.
+     */
+    public static List<WorldAudience> byPermission(String permission) {
+        PermissionPartition partition = BY_PERMISSION.get(permission);
+        if (partition == null || partition.isExpired()) {
+            partition = buildPartition(permission);
+        }
+        return snapshot(partition.byWorld());
+    }
+
+    /**
+     * Players in a world. The array must not be modified.
+     */
+    public static PlayerRef[] inWorld(World world) {
+        return world != null ? BY_WORLD.getOrDefault(world, NO_PLAYERS) : NO_PLAYERS;
+    }
+
+    /**
+     * Gets the world a player is in, or null if unknown
+     */
+    public static World worldOf(PlayerRef player) {
+        return WORLD_OF.get(player.getUuid());
+    }
+
+    /**
+     * Number of players in any world
+     */
+    public static int size() {
+        return size;
+    }
+
+    /**
+     * Checks a permission of a player; false if it cannot be checked
+     */
+    static boolean hasPermission(PlayerRef player, String permission) {
+        try {
+            PermissionsModule permissions = PermissionsModule.get();
+            return permissions != null && permissions.hasPermission(player.getUuid(), permission);
+        } catch (Exception e) {
+            Logger.debug("Could not check permission " + permission + " for " + player.getUsername() + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    private static synchronized PermissionPartition buildPartition(String permission) {
+        PermissionPartition partition = BY_PERMISSION.get(permission);
+        if (partition != null && !partition.isExpired()) {
+            return partition; // Built by another thread in the meantime
+        }
+        Map<World, PlayerRef[]> byWorld = new ConcurrentHashMap<>();
+        for (Map.Entry<World, PlayerRef[]> entry : BY_WORLD.entrySet()) {
+            List<PlayerRef> permitted = new ArrayList<>();
+            for (PlayerRef player : entry.getValue()) {
+                if (hasPermission(player, permission)) {
+                    permitted.add(player);
+                }
+            }
+            if (!permitted.isEmpty()) {
+                byWorld.put(entry.getKey(), permitted.toArray(NO_PLAYERS));
+            }
+        }
+        partition = new PermissionPartition(byWorld, System.nanoTime());
+        BY_PERMISSION.put(permission, partition);
+        return partition;
+    }
+
+    private static List<WorldAudience> snapshot(Map<World, PlayerRef[]> index) {
+        List<WorldAudience> audiences = new ArrayList<>(index.size());
+        for (Map.Entry<World, PlayerRef[]> entry : index.entrySet()) {
+            if (entry.getValue().length > 0) {
+                audiences.add(new WorldAudience(entry.getKey(), entry.getValue()));
+            }
+        }
+        return audiences;
+    }
+
+    private static <K> void removeFrom(Map<K, PlayerRef[]> index, K key, UUID uuid) {
+        PlayerRef[] players = index.get(key);
+        if (players == null) {
+            return;
+        }
+        for (int i = 0; i < players.length; i++) {
+            if (uuid.equals(players[i].getUuid())) {
+                if (players.length == 1) {
+                    index.remove(key);
+                } else {
+                    PlayerRef[] remaining = Arrays.copyOf(players, players.length - 1);
+                    System.arraycopy(players, i + 1, remaining, i, players.length - i - 1);
+                    index.put(key, remaining);
+                }
+                return;
+            }
+        }
+    }
+
+    private static PlayerRef[] concat(PlayerRef[] players, PlayerRef[] added) {
+        PlayerRef[] result = Arrays.copyOf(players, players.length + added.length);
+        System.arraycopy(added, 0, result, players.length, added.length);
+        return result;
+    }
+}
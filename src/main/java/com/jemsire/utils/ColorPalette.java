@@ -0,0 +1,197 @@
+package com.jemsire.utils;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Shared color palette for the rendering engine.
+ * Colors are packed RGB ints (0xRRGGBB); {@link #NONE} (-1) means "no color".
+ * Nothing here touches java.awt, so parsing and gradients do not load AWT on a headless server.
+ */
+public final class ColorPalette {
+    private ColorPalette() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    /** Returned when a color could not be resolved */
+    public static final int NONE = -1;
+
+    // Named colors (Minecraft-style names), in legacy code order
+    private static final String[] NAMES = {
+            "black", "dark_blue", "dark_green", "dark_aqua",
+            "dark_red", "dark_purple", "gold", "gray",
+            "dark_gray", "blue", "green", "aqua",
+            "red", "light_purple", "yellow", "white"
+    };
+
+    private static final int[] VALUES = {
+            0x000000, 0x0000AA, 0x00AA00, 0x00AAAA,
+            0xAA0000, 0xAA00AA, 0xFFAA00, 0xAAAAAA,
+            0x555555, 0x5555FF, 0x55FF55, 0x55FFFF,
+            0xFF5555, 0xFF55FF, 0xFFFF55, 0xFFFFFF
+    };
+
+    private static final Map<String, Integer> NAMED_COLORS;
+
+    static {
+        Map<String, Integer> named = new LinkedHashMap<>();
+        for (int i = 0; i < NAMES.length; i++) {
+            named.put(NAMES[i], VALUES[i]);
+        }
+        NAMED_COLORS = Collections.unmodifiableMap(named);
+    }
+
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    /**
+     * Gets all named colors (lower-case name to packed RGB), in legacy code order
+     */
+    public static Map<String, Integer> namedColors() {
+        return NAMED_COLORS;
+    }
+
+    /**
+     * Gets a named color by its exact (lower-case) name
+     * @return The packed RGB value, or {@link #NONE}
+     */
+    public static int named(String name) {
+        if (name == null) {
+            return NONE;
+        }
+        Integer rgb = NAMED_COLORS.get(name);
+        return rgb != null ? rgb : NONE;
+    }
+
+    /**
+     * Gets the index (0-15) of a legacy color code character (0-9, a-f, case-insensitive)
+     * @return The index, or -1 if the character is not a color code
+     */
+    public static int legacyIndex(char code) {
+        if (code >= '0' && code <= '9') return code - '0';
+        if (code >= 'a' && code <= 'f') return code - 'a' + 10;
+        if (code >= 'A' && code <= 'F') return code - 'A' + 10;
+        return -1;
+    }
+
+    /**
+     * Gets the color for a legacy color code character (&amp;0-&amp;f)
+     * @return The packed RGB value, or {@link #NONE}
+     */
+    public static int legacy(char code) {
+        int index = legacyIndex(code);
+        return index >= 0 ? VALUES[index] : NONE;
+    }
+
+    /**
+     * Gets the color name for a legacy color code character (e.g. 'a' -> "green")
+     * @return The name, or null if the character is not a color code
+     */
+    public static String legacyName(char code) {
+        int index = legacyIndex(code);
+        return index >= 0 ? NAMES[index] : null;
+    }
+
+    /**
+     * Gets the value of an ASCII hex digit ([0-9a-fA-F]); unlike {@link Character#digit} other Unicode digits are rejected
+     * @return 0-15, or -1 if the character is not an ASCII hex digit
+     */
+    public static int hexDigit(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        }
+        return -1;
+    }
+
+    /**
+     * Parses 'count' hex digits of text starting at 'start', stepping by 'stride' characters
+     * @return The parsed value, or {@link #NONE} if out of range or any character is not a hex digit
+     */
+    public static int parseHexDigits(CharSequence text, int start, int stride, int count) {
+        if (start < 0 || start + (count - 1) * stride >= text.length()) {
+            return NONE;
+        }
+        int value = 0;
+        for (int i = 0; i < count; i++) {
+            int digit = hexDigit(text.charAt(start + i * stride));
+            if (digit < 0) {
+                return NONE;
+            }
+            value = (value << 4) | digit;
+        }
+        return value;
+    }
+
+    /**
+     * Parses a 6-digit hex color. '#' characters and surrounding whitespace are ignored (e.g. "#FF0000", " FF0000 ").
+     * @return The packed RGB value, or {@link #NONE}
+     */
+    public static int parseHex(String hex) {
+        if (hex == null) {
+            return NONE;
+        }
+        int value = 0;
+        int digits = 0;
+        boolean trailing = false;
+        for (int i = 0, length = hex.length(); i < length; i++) {
+            char c = hex.charAt(i);
+            if (c == '#') {
+                continue;
+            }
+            if (Character.isWhitespace(c)) {
+                trailing = digits > 0;
+                continue;
+            }
+            int digit = hexDigit(c);
+            if (digit < 0 || trailing || ++digits > 6) {
+                return NONE;
+            }
+            value = (value << 4) | digit;
+        }
+        return digits == 6 ? value : NONE;
+    }
+
+    /**
+     * Linear interpolation between two packed colors, per channel (truncating like the previous float math)
+     */
+    public static int interpolate(int from, int to, float progress) {
+        int r1 = (from >> 16) & 0xFF, g1 = (from >> 8) & 0xFF, b1 = from & 0xFF;
+        int r2 = (to >> 16) & 0xFF, g2 = (to >> 8) & 0xFF, b2 = to & 0xFF;
+        int r = (int) (r1 + (r2 - r1) * progress);
+        int g = (int) (g1 + (g2 - g1) * progress);
+        int b = (int) (b1 + (b2 - b1) * progress);
+        return (r << 16) | (g << 8) | b;
+    }
+
+    /**
+     * Interpolates along a list of gradient stops
+     * @param stops    Packed colors, at least one
+     * @param progress Position along the gradient, clamped to 0..1
+     */
+    public static int interpolate(int[] stops, float progress) {
+        if (stops.length == 1) return stops[0];
+        float clampedProgress = Math.max(0f, Math.min(1f, progress));
+        float scaledProgress = clampedProgress * (stops.length - 1);
+        int index = Math.min((int) scaledProgress, stops.length - 2);
+        return interpolate(stops[index], stops[index + 1], scaledProgress - index);
+    }
+
+    /**
+     * Formats a packed color as "#RRGGBB", the form Hytale messages take
+     */
+    public static String toHex(int rgb) {
+        char[] chars = new char[7];
+        chars[0] = '#';
+        for (int i = 6; i >= 1; i--) {
+            chars[i] = HEX_DIGITS[rgb & 0xF];
+            rgb >>= 4;
+        }
+        return new String(chars);
+    }
+}
@@ -1,11 +1,5 @@
 package com.jemsire.utils;
 
-import java.awt.Color;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
 /**
  * Utility class for handling color codes in messages.
  * Supports both & color codes (like &a, &c) and hex colors (like #FF0000 or &x&F&F&0&0&0&0).
@@ -15,181 +9,88 @@ public class ColorUtils {
         throw new UnsupportedOperationException("Utility class");
     }
     
-    // Minecraft/Hytale color code mapping
-    private static final Map<Character, Color> COLOR_CODES = new HashMap<>();
-    
-    static {
-        COLOR_CODES.put('0', new Color(0, 0, 0));       // Black
-        COLOR_CODES.put('1', new Color(0, 0, 170));      // Dark Blue
-        COLOR_CODES.put('2', new Color(0, 170, 0));      // Dark Green
-        COLOR_CODES.put('3', new Color(0, 170, 170));    // Dark Aqua
-        COLOR_CODES.put('4', new Color(170, 0, 0));      // Dark Red
-        COLOR_CODES.put('5', new Color(170, 0, 170));    // Dark Purple
-        COLOR_CODES.put('6', new Color(255, 170, 0));    // Gold
-        COLOR_CODES.put('7', new Color(170, 170, 170));  // Gray
-        COLOR_CODES.put('8', new Color(85, 85, 85));     // Dark Gray
-        COLOR_CODES.put('9', new Color(85, 85, 255));    // Blue
-        COLOR_CODES.put('a', new Color(85, 255, 85));     // Green
-        COLOR_CODES.put('b', new Color(85, 255, 255));   // Aqua
-        COLOR_CODES.put('c', new Color(255, 85, 85));    // Red
-        COLOR_CODES.put('d', new Color(255, 85, 255));   // Light Purple
-        COLOR_CODES.put('e', new Color(255, 255, 85));   // Yellow
-        COLOR_CODES.put('f', new Color(255, 255, 255));  // White
-    }
-    
-    // Format codes
-    private static final Map<Character, String> FORMAT_CODES = new HashMap<>();
-    
-    static {
-        FORMAT_CODES.put('k', "obfuscated");
-        FORMAT_CODES.put('l', "bold");
-        FORMAT_CODES.put('m', "strikethrough");
-        FORMAT_CODES.put('n', "underline");
-        FORMAT_CODES.put('o', "italic");
-        FORMAT_CODES.put('r', "reset");
-    }
-    
-    // Named colors map (for TinyMsg compatibility)
-    private static final Map<String, Color> NAMED_COLORS = new HashMap<>();
-    
-    static {
-        NAMED_COLORS.put("black", new Color(0, 0, 0));
-        NAMED_COLORS.put("dark_blue", new Color(0, 0, 170));
-        NAMED_COLORS.put("dark_green", new Color(0, 170, 0));
-        NAMED_COLORS.put("dark_aqua", new Color(0, 170, 170));
-        NAMED_COLORS.put("dark_red", new Color(170, 0, 0));
-        NAMED_COLORS.put("dark_purple", new Color(170, 0, 170));
-        NAMED_COLORS.put("gold", new Color(255, 170, 0));
-        NAMED_COLORS.put("gray", new Color(170, 170, 170));
-        NAMED_COLORS.put("dark_gray", new Color(85, 85, 85));
-        NAMED_COLORS.put("blue", new Color(85, 85, 255));
-        NAMED_COLORS.put("green", new Color(85, 255, 85));
-        NAMED_COLORS.put("aqua", new Color(85, 255, 255));
-        NAMED_COLORS.put("red", new Color(255, 85, 85));
-        NAMED_COLORS.put("light_purple", new Color(255, 85, 255));
-        NAMED_COLORS.put("yellow", new Color(255, 255, 85));
-        NAMED_COLORS.put("white", new Color(255, 255, 255));
-    }
-    
-    // Color code to name mapping (for legacy code conversion)
-    private static final Map<Character, String> CODE_TO_COLOR_NAME = new HashMap<>();
-    
-    static {
-        CODE_TO_COLOR_NAME.put('0', "black");
-        CODE_TO_COLOR_NAME.put('1', "dark_blue");
-        CODE_TO_COLOR_NAME.put('2', "dark_green");
-        CODE_TO_COLOR_NAME.put('3', "dark_aqua");
-        CODE_TO_COLOR_NAME.put('4', "dark_red");
-        CODE_TO_COLOR_NAME.put('5', "dark_purple");
-        CODE_TO_COLOR_NAME.put('6', "gold");
-        CODE_TO_COLOR_NAME.put('7', "gray");
-        CODE_TO_COLOR_NAME.put('8', "dark_gray");
-        CODE_TO_COLOR_NAME.put('9', "blue");
-        CODE_TO_COLOR_NAME.put('a', "green");
-        CODE_TO_COLOR_NAME.put('b', "aqua");
-        CODE_TO_COLOR_NAME.put('c', "red");
-        CODE_TO_COLOR_NAME.put('d', "light_purple");
-        CODE_TO_COLOR_NAME.put('e', "yellow");
-        CODE_TO_COLOR_NAME.put('f', "white");
-    }
-    
-    // Format code to style name mapping (for legacy code conversion)
-    private static final Map<Character, String> CODE_TO_STYLE_NAME = new HashMap<>();
-    
-    static {
-        CODE_TO_STYLE_NAME.put('k', "obfuscated");
-        CODE_TO_STYLE_NAME.put('l', "bold");
-        CODE_TO_STYLE_NAME.put('m', "strikethrough");
-        CODE_TO_STYLE_NAME.put('n', "underline");
-        CODE_TO_STYLE_NAME.put('o', "italic");
-        CODE_TO_STYLE_NAME.put('r', "reset");
-    }
-    
-    // Pattern for hex colors: #RRGGBB or #RGB
-    private static final Pattern HEX_PATTERN = Pattern.compile("&#([0-9A-Fa-f]{6})|#([0-9A-Fa-f]{6})|#([0-9A-Fa-f]{3})");
+    // Reusable buffer for stripColorCodes; dropped if a very long input made it grow
+    private static final ThreadLocal<StringBuilder> STRIP_BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(128));
+    private static final int MAX_BUFFER_CAPACITY = 8192;
 
-    // Pattern for <offset:N> centering adjustment (e.g. <offset:5> add spaces, <offset:-2> remove spaces)
-    private static final Pattern OFFSET_TAG_PATTERN = Pattern.compile("<offset:(-?\\d+)>", Pattern.CASE_INSENSITIVE);
-    
     /**
-     * Converts a string with color codes to a Color object.
-     * Supports & codes (like &a, &c) and hex colors (like #FF0000).
+     * Converts a string with color codes to a packed RGB color (see {@link ColorPalette}).
+     * Supports & codes (like &a, &c) and hex colors (like #FF0000, #F00 or &#FF0000).
      * 
-     * @param colorString The color string (e.g., "&a", "#FF0000", "&x&F&F&0&0&0&0")
-     * @return The Color object, or null if invalid
+     * @param colorString The color string (e.g., "&a", "#FF0000", "&#FF0000")
+     * @return The packed RGB value, or {@link ColorPalette#NONE} if invalid
      */
-    public static Color parseColor(String colorString) {
+    public static int parseColor(String colorString) {
         if (colorString == null || colorString.isEmpty()) {
-            return null;
+            return ColorPalette.NONE;
         }
         
         // Handle & code colors (single character after &)
         if (colorString.startsWith("&") && colorString.length() == 2) {
-            char code = colorString.charAt(1);
-            if (COLOR_CODES.containsKey(code)) {
-                return COLOR_CODES.get(code);
+            int rgb = ColorPalette.legacy(colorString.charAt(1));
+            if (rgb != ColorPalette.NONE) {
+                return rgb;
             }
         }
         
-        // Handle hex colors: #RRGGBB or #RGB
-        Matcher hexMatcher = HEX_PATTERN.matcher(colorString);
-        if (hexMatcher.find()) {
-            String hex = hexMatcher.group(1);
-            if (hex == null) {
-                hex = hexMatcher.group(2);
-            }
-            if (hex == null) {
-                // Short hex format #RGB -> #RRGGBB
-                String shortHex = hexMatcher.group(3);
-                if (shortHex != null) {
-                    hex = "" + shortHex.charAt(0) + shortHex.charAt(0) +
-                          shortHex.charAt(1) + shortHex.charAt(1) +
-                          shortHex.charAt(2) + shortHex.charAt(2);
+        // Handle hex colors: &#RRGGBB, #RRGGBB or #RGB (first match wins)
+        for (int i = 0; i < colorString.length(); i++) {
+            char c = colorString.charAt(i);
+            if (c == '&' && i + 1 < colorString.length() && colorString.charAt(i + 1) == '#') {
+                int rgb = ColorPalette.parseHexDigits(colorString, i + 2, 1, 6);
+                if (rgb != ColorPalette.NONE) {
+                    return rgb;
                 }
-            }
-            if (hex != null) {
-                try {
-                    return new Color(Integer.parseInt(hex, 16));
-                } catch (NumberFormatException e) {
-                    return null;
+            } else if (c == '#') {
+                int rgb = ColorPalette.parseHexDigits(colorString, i + 1, 1, 6);
+                if (rgb != ColorPalette.NONE) {
+                    return rgb;
+                }
+                int shortRgb = ColorPalette.parseHexDigits(colorString, i + 1, 1, 3);
+                if (shortRgb != ColorPalette.NONE) {
+                    // Short hex format #RGB -> #RRGGBB
+                    int r = (shortRgb >> 8) & 0xF, g = (shortRgb >> 4) & 0xF, b = shortRgb & 0xF;
+                    return (r * 0x11 << 16) | (g * 0x11 << 8) | (b * 0x11);
                 }
             }
         }
         
-        return null;
+        return ColorPalette.NONE;
     }
 
     /**
      * Checks if a character is a valid color code
      */
     public static boolean isColorCode(char code) {
-        return COLOR_CODES.containsKey(Character.toLowerCase(code));
+        return ColorPalette.legacyIndex(code) >= 0;
     }
     
     /**
      * Checks if a character is a valid format code
      */
     public static boolean isFormatCode(char code) {
-        return FORMAT_CODES.containsKey(Character.toLowerCase(code));
+        char lower = Character.toLowerCase(code);
+        return (lower >= 'k' && lower <= 'o') || lower == 'r';
     }
     
     /**
-     * Gets the Color object for a color code character
+     * Gets the packed RGB color for a color code character
+     * @return The packed RGB value, or {@link ColorPalette#NONE} if not a color code
      */
-    public static Color getColorForCode(char code) {
-        return COLOR_CODES.get(Character.toLowerCase(code));
+    public static int getColorForCode(char code) {
+        return ColorPalette.legacy(code);
     }
     
     /**
      * Gets a named color by its string name (e.g., "red", "blue", "dark_blue")
      * @param name The color name
-     * @return The Color object, or null if not found
+     * @return The packed RGB value, or {@link ColorPalette#NONE} if not found
      */
-    public static Color getNamedColor(String name) {
+    public static int getNamedColor(String name) {
         if (name == null) {
-            return null;
+            return ColorPalette.NONE;
         }
-        return NAMED_COLORS.get(name.toLowerCase());
+        return ColorPalette.named(name.toLowerCase());
     }
     
     /**
@@ -198,49 +99,34 @@ public class ColorUtils {
      * @return true if the named color exists
      */
     public static boolean hasNamedColor(String name) {
-        if (name == null) {
-            return false;
-        }
-        return NAMED_COLORS.containsKey(name.toLowerCase());
+        return getNamedColor(name) != ColorPalette.NONE;
     }
     
     /**
      * Parses a hex color string (with or without # prefix)
      * @param hex The hex color string (e.g., "#FF0000" or "FF0000")
-     * @return The Color object, or null if invalid
+     * @return The packed RGB value, or {@link ColorPalette#NONE} if invalid
      */
-    public static Color parseHexColor(String hex) {
+    public static int parseHexColor(String hex) {
         if (hex == null || hex.isEmpty()) {
-            return null;
-        }
-        
-        try {
-            String clean = hex.replace("#", "");
-            if (clean.length() == 6) {
-                int r = Integer.parseInt(clean.substring(0, 2), 16);
-                int g = Integer.parseInt(clean.substring(2, 4), 16);
-                int b = Integer.parseInt(clean.substring(4, 6), 16);
-                return new Color(r, g, b);
-            }
-            return null;
-        } catch (Exception e) {
-            return null;
+            return ColorPalette.NONE;
         }
+        return ColorPalette.parseHex(hex);
     }
     
     /**
      * Parses a color from a string argument (named color or hex)
      * @param arg The color argument (e.g., "red", "#FF0000", "FF0000")
-     * @return The Color object, or null if invalid
+     * @return The packed RGB value, or {@link ColorPalette#NONE} if invalid
      */
-    public static Color parseColorArg(String arg) {
+    public static int parseColorArg(String arg) {
         if (arg == null || arg.isEmpty()) {
-            return null;
+            return ColorPalette.NONE;
         }
         
         // Try named color first
-        Color namedColor = getNamedColor(arg);
-        if (namedColor != null) {
+        int namedColor = getNamedColor(arg);
+        if (namedColor != ColorPalette.NONE) {
             return namedColor;
         }
         
@@ -249,178 +135,115 @@ public class ColorUtils {
     }
     
     /**
-     * Converts legacy & color codes to TinyMsg tags for backward compatibility.
-     * Outputs tags compatible with TinyMessage API: &lt;color:name&gt;, &lt;b&gt;, &lt;i&gt;, &lt;u&gt;, &lt;reset&gt;, &lt;color:#RRGGBB&gt; for hex.
-     * @param text The text with legacy & codes (e.g. &a, &l, &#RRGGBB, &x&R&G&B)
-     * @return The text with TinyMsg tags for TinyMsg.parse()
+     * Strips all color codes and formatting tags from text in a single pass.
+     * Removes TinyMsg tags, legacy & codes, and hex (#RRGGBB, #RGB, &#RRGGBB, &x&R&R&G&G&B&B)
+     * @param text The text to strip
+     * @return The plain text without any formatting
      */
-    public static String convertLegacyColorCodes(String text) {
-        if (text == null) {
-            return null;
-        }
-        // First convert hex patterns so we don't confuse them with single-char codes
-        String s = text;
-        // &#RRGGBB -> <color:#RRGGBB>
-        s = s.replaceAll("&#([0-9A-Fa-f]{6})", "<color:#$1>");
-        // &x&R&R&G&G&B&B -> <color:#RRGGBB>
-        Matcher hexLegacy = Pattern.compile("&x(&[0-9A-Fa-f]){6}").matcher(s);
-        StringBuilder hexRepl = new StringBuilder();
-        while (hexLegacy.find()) {
-            String match = hexLegacy.group();
-            // match is "&x&R&R&G&G&B&B" - hex digits at indices 3,5,7,9,11,13
-            String hex = "" + match.charAt(3) + match.charAt(5) + match.charAt(7) + match.charAt(9) + match.charAt(11) + match.charAt(13);
-            hexLegacy.appendReplacement(hexRepl, Matcher.quoteReplacement("<color:#" + hex + ">"));
-        }
-        hexLegacy.appendTail(hexRepl);
-        s = hexRepl.toString();
-
-        if (!s.contains("&")) {
-            return s;
+    public static String stripColorCodes(String text) {
+        if (text == null || text.isEmpty()) {
+            return text;
         }
-
-        StringBuilder result = new StringBuilder();
-        char[] chars = s.toCharArray();
-
-        for (int i = 0; i < chars.length; i++) {
-            if (chars[i] == '&' && i + 1 < chars.length) {
-                char code = Character.toLowerCase(chars[i + 1]);
-
-                if (CODE_TO_COLOR_NAME.containsKey(code)) {
-                    result.append("<color:").append(CODE_TO_COLOR_NAME.get(code)).append(">");
-                    i++;
-                } else if (CODE_TO_STYLE_NAME.containsKey(code)) {
-                    String style = CODE_TO_STYLE_NAME.get(code);
-                    switch (style) {
-                        case "reset" -> result.append("<reset>");
-                        case "bold" -> result.append("<b>");
-                        case "underline" -> result.append("<u>");
-                        case "italic" -> result.append("<i>");
-                    }
-                    i++;
-                } else {
-                    result.append(chars[i]);
-                }
-            } else {
-                result.append(chars[i]);
-            }
+        StringBuilder out = STRIP_BUFFER.get();
+        out.setLength(0);
+        int visible = scanVisible(text, out);
+        String result = visible == text.length() ? text : out.toString();
+        if (out.capacity() > MAX_BUFFER_CAPACITY) {
+            STRIP_BUFFER.remove();
         }
-
-        return result.toString();
+        return result;
     }
-    
+
     /**
-     * Returns the offset value from the first &lt;offset:N&gt; tag in the text. One offset per message line:
-     * positive = add more leading spaces (shift right), negative = fewer spaces (shift left).
-     * Additional offset tags on the same line are ignored; each chat line gets its own single offset.
-     * @param text The text that may contain one &lt;offset:N&gt; tag
-     * @return The N value, or 0 if none or invalid
+     * Returns the visible character count for centering. Counts only visible characters;
+     * tags and color codes are skipped (same rules as {@link #stripColorCodes}). Used with center width 80: spaces = (80 - count) / 2.
      */
-    public static int getOffset(String text) {
-        if (text == null || !text.contains("offset")) {
+    public static int getVisibleWidthForCentering(String text) {
+        if (text == null || text.isEmpty()) {
             return 0;
         }
-        Matcher m = OFFSET_TAG_PATTERN.matcher(text);
-        if (m.find()) {
-            try {
-                return Integer.parseInt(m.group(1));
-            } catch (NumberFormatException ignored) {
-            }
-        }
-        return 0;
+        return scanVisible(text, null);
     }
 
     /**
-     * Removes all &lt;offset:N&gt; tags from text. Call before centering and before TinyMsg.parse
-     * so the tags are not displayed and not counted as visible width.
-     * @param text The text that may contain &lt;offset:N&gt; tags
-     * @return The text with all &lt;offset:N&gt; tags removed
+     * Scans text once, skipping tags and color codes.
+     * @param text The text to scan
+     * @param out  Receives the visible characters, or null to only count them
+     * @return The number of visible characters
      */
-    public static String stripOffsetTags(String text) {
-        if (text == null) {
-            return null;
+    private static int scanVisible(String text, StringBuilder out) {
+        int length = text.length();
+        int visible = 0;
+        int i = 0;
+        while (i < length) {
+            int skip = formattingLength(text, i);
+            if (skip > 0) {
+                i += skip;
+                continue;
+            }
+            if (out != null) {
+                out.append(text.charAt(i));
+            }
+            visible++;
+            i++;
         }
-        return OFFSET_TAG_PATTERN.matcher(text).replaceAll("");
+        return visible;
     }
 
     /**
-     * Strips all color codes and formatting tags from text
-     * Removes TinyMsg tags, legacy & codes, and hex (#RRGGBB, &#RRGGBB, &x&R&G&B)
-     * @param text The text to strip
-     * @return The plain text without any formatting
+     * Returns the length of the tag or color code starting at index i, or 0 if the character there is visible text.
      */
-    public static String stripColorCodes(String text) {
-        if (text == null || text.isEmpty()) {
-            return text;
+    private static int formattingLength(String text, int i) {
+        int length = text.length();
+        char c = text.charAt(i);
+        if (c == '<') {
+            // <tag> with at least one character inside
+            int end = text.indexOf('>', i + 1);
+            return end > i + 1 ? end - i + 1 : 0;
+        }
+        if (c == '&' && i + 1 < length) {
+            char code = text.charAt(i + 1);
+            if (code == '#' && isHexRun(text, i + 2, 1, 6)) {
+                return 8;
+            }
+            if (code == 'x' && i + 14 <= length && isHexRun(text, i + 3, 2, 6) && isLegacyHexSeparators(text, i + 2)) {
+                return 14;
+            }
+            char lower = Character.toLowerCase(code);
+            if ((lower >= '0' && lower <= '9') || (lower >= 'a' && lower <= 'f') || (lower >= 'k' && lower <= 'o') || lower == 'r') {
+                return 2;
+            }
+            return 0;
+        }
+        if (c == '#') {
+            if (isHexRun(text, i + 1, 1, 6)) {
+                return 7;
+            }
+            if (isHexRun(text, i + 1, 1, 3)) {
+                return 4;
+            }
         }
-        // Strip TinyMsg tags (<tag> and </tag>) - case insensitive
-        String s = text.replaceAll("(?i)<[^>]+>", "");
-        // Strip legacy & single-char codes (e.g., &a, &l, &r)
-        s = s.replaceAll("(?i)&[0-9a-fk-or]", "");
-        // Strip hex: &#RRGGBB and &x&R&R&G&G&B&B (legacy hex)
-        s = s.replaceAll("&#[0-9A-Fa-f]{6}", "");
-        s = s.replaceAll("&x(&[0-9A-Fa-f]){6}", "");
-        // Strip standalone #RRGGBB and #RGB (so they are not counted as visible length)
-        s = s.replaceAll("#[0-9A-Fa-f]{6}", "");
-        s = s.replaceAll("#[0-9A-Fa-f]{3}", "");
-        return s;
+        return 0;
     }
 
-    /**
-     * Returns the visible character count for centering. Counts only visible characters;
-     * tags and color codes are skipped. Used with center width 80: spaces = (80 - count) / 2.
-     */
-    public static int getVisibleWidthForCentering(String text) {
-        if (text == null || text.isEmpty()) {
-            return 0;
+    private static boolean isHexRun(String text, int start, int stride, int count) {
+        if (start + (count - 1) * stride >= text.length()) {
+            return false;
         }
-        int width = 0;
-        int i = 0;
-        while (i < text.length()) {
-            if (text.charAt(i) == '<') {
-                int end = text.indexOf('>', i + 1);
-                if (end == -1) {
-                    width++;
-                    i++;
-                    continue;
-                }
-                i = end + 1;
-                continue;
+        for (int n = 0; n < count; n++) {
+            if (ColorPalette.hexDigit(text.charAt(start + n * stride)) < 0) {
+                return false;
             }
-            if (text.charAt(i) == '&' && i + 1 < text.length()) {
-                char c = Character.toLowerCase(text.charAt(i + 1));
-                boolean singleCode = (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || c == 'k' || c == 'l' || c == 'm' || c == 'n' || c == 'o' || c == 'r';
-                if (singleCode) {
-                    i += 2;
-                    continue;
-                }
-                if (c == '#' && i + 8 <= text.length()) {
-                    String hex = text.substring(i + 2, i + 8);
-                    if (hex.matches("[0-9A-Fa-f]{6}")) {
-                        i += 8;
-                        continue;
-                    }
-                }
-                if (c == 'x' && i + 12 <= text.length()) {
-                    String rest = text.substring(i, i + 12);
-                    if (rest.matches("(?i)&x(&[0-9a-f]){6}")) {
-                        i += 12;
-                        continue;
-                    }
-                }
-            }
-            if (text.charAt(i) == '#') {
-                int hexEnd = i + 1;
-                while (hexEnd < text.length() && hexEnd - i <= 7 && (Character.isDigit(text.charAt(hexEnd)) || "abcdefABCDEF".indexOf(text.charAt(hexEnd)) >= 0)) {
-                    hexEnd++;
-                }
-                if (hexEnd - i == 7 || hexEnd - i == 4) {
-                    i = hexEnd;
-                    continue;
-                }
+        }
+        return true;
+    }
+
+    private static boolean isLegacyHexSeparators(String text, int start) {
+        for (int n = 0; n < 6; n++) {
+            if (text.charAt(start + n * 2) != '&') {
+                return false;
             }
-            width++;
-            i++;
         }
-        return width;
+        return true;
     }
 }
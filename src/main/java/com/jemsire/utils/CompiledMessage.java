@@ -0,0 +1,133 @@
+package com.jemsire.utils;
+
+import com.hypixel.hytale.protocol.ItemWithAllMetadata;
+import com.jemsire.config.AnnouncementMessage;
+
+import java.util.List;
+
+/**
+ * Render-once form of an {@link AnnouncementMessage}.
+ * Built by {@link MessageCompiler} when messages are loaded so that sending only fans out
+ * the already-parsed Message objects instead of re-parsing every line for every player.
+ * Text without placeholders is fully static; text with placeholders keeps its static parts pre-built.
+ */
+public final class CompiledMessage {
+    private final String name;
+    private final AnnouncementMessage source;
+    private final List<MessageTemplate> chatLines;
+    private final MessageTemplate notificationTitle;
+    private final MessageTemplate notificationSubtitle;
+    private final ItemWithAllMetadata notificationIcon;
+    private final MessageTemplate title;
+    private final MessageTemplate subtitle;
+    private final int soundIndex;
+    private final AudienceFilter audience;
+    private final CronExpression cron;
+
+    CompiledMessage(String name,
+                    AnnouncementMessage source,
+                    List<MessageTemplate> chatLines,
+                    MessageTemplate notificationTitle,
+                    MessageTemplate notificationSubtitle,
+                    ItemWithAllMetadata notificationIcon,
+                    MessageTemplate title,
+                    MessageTemplate subtitle,
+                    int soundIndex,
+                    AudienceFilter audience,
+                    CronExpression cron) {
+        this.name = name;
+        this.source = source;
+        this.chatLines = List.copyOf(chatLines);
+        this.notificationTitle = notificationTitle;
+        this.notificationSubtitle = notificationSubtitle;
+        this.notificationIcon = notificationIcon;
+        this.title = title;
+        this.subtitle = subtitle;
+        this.soundIndex = soundIndex;
+        this.audience = audience;
+        this.cron = cron;
+    }
+
+    /**
+     * Name of the message file this was compiled from (relative path, may be null for ad-hoc messages)
+     */
+    public String name() { return name; }
+
+    /**
+     * The message configuration this was compiled from
+     */
+    public AnnouncementMessage source() { return source; }
+
+    /**
+     * Chat lines, already offset, centered and parsed. Empty lines are dropped.
+     * Lines with placeholders are rendered per player; see {@link MessageTemplate#render}.
+     */
+    public List<MessageTemplate> chatLines() { return chatLines; }
+
+    public MessageTemplate notificationTitle() { return notificationTitle; }
+    public MessageTemplate notificationSubtitle() { return notificationSubtitle; }
+
+    /**
+     * Notification icon packet, or null if none is configured or the item could not be resolved
+     */
+    public ItemWithAllMetadata notificationIcon() { return notificationIcon; }
+
+    public MessageTemplate title() { return title; }
+    public MessageTemplate subtitle() { return subtitle; }
+
+    public AnnouncementMessage.TitleConfig titleConfig() { return source.title(); }
+
+    /**
+     * Resolved SoundEvent index, or -1 if no (valid) sound is configured
+     */
+    public int soundIndex() { return soundIndex; }
+
+    /**
+     * Who the message is sent to (Worlds, Permission, MinPlayers, MaxPlayers)
+     */
+    public AudienceFilter audience() { return audience; }
+
+    /**
+     * Parsed Cron schedule, or null if none (or an invalid one) is configured
+     */
+    public CronExpression cron() { return cron; }
+
+    /**
+     * True if the message is sent on its own schedule (IntervalSeconds or Cron) instead of in the main rotation
+     */
+    public boolean hasOwnSchedule() {
+        return cron != null || source.getIntervalSeconds() > 0;
+    }
+
+    public boolean hasChatMessages() {
+        return !chatLines.isEmpty();
+    }
+
+    public boolean hasNotification() {
+        return notificationTitle != null;
+    }
+
+    public boolean hasTitle() {
+        return title != null;
+    }
+
+    /**
+     * True if nothing in this message needs per-player placeholder resolution
+     */
+    public boolean isStatic() {
+        for (MessageTemplate line : chatLines) {
+            if (!line.isStatic()) {
+                return false;
+            }
+        }
+        return isStatic(notificationTitle) && isStatic(notificationSubtitle) && isStatic(title) && isStatic(subtitle);
+    }
+
+    private static boolean isStatic(MessageTemplate template) {
+        return template == null || template.isStatic();
+    }
+
+    public boolean hasSound() {
+        return soundIndex >= 0;
+    }
+}
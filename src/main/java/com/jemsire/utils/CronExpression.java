@@ -0,0 +1,147 @@
+package com.jemsire.utils;
+
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Minimal 5-field cron expression: minute, hour, day of month, month, day of week.
+ * Each field accepts {@code *}, numbers, ranges ({@code 1-5}), lists ({@code 1,15}) and steps ({@code *}{@code /10}, {@code 0-30/5}).
+ * Day of week is 0-7 (0 and 7 are Sunday). As in standard cron, when both day fields are restricted a day matching either one matches.
+ * Names (MON, JAN) and the non-standard characters (L, W, #, ?) are not supported.
+ */
+public final class CronExpression {
+    private final String expression;
+    private final long minutes; // Bit N set = minute N matches
+    private final long hours;
+    private final long daysOfMonth;
+    private final long months;
+    private final long daysOfWeek; // Bit 0 = Sunday ... bit 6 = Saturday
+    private final boolean anyDayOfMonth;
+    private final boolean anyDayOfWeek;
+
+    private CronExpression(String expression, long minutes, long hours, long daysOfMonth, long months, long daysOfWeek,
+                           boolean anyDayOfMonth, boolean anyDayOfWeek) {
+        this.expression = expression;
+        this.minutes = minutes;
+        this.hours = hours;
+        this.daysOfMonth = daysOfMonth;
+        this.months = months;
+        this.daysOfWeek = daysOfWeek;
+        this.anyDayOfMonth = anyDayOfMonth;
+        this.anyDayOfWeek = anyDayOfWeek;
+    }
+
+    /**
+     * Parses a cron expression
+     *
+     * @throws IllegalArgumentException if the expression is not valid
+     */
+    public static CronExpression parse(String expression) {
+        if (expression == null) {
+            throw new IllegalArgumentException("Cron expression is null");
+        }
+        String[] fields = expression.trim().split("\\s+");
+        if (fields.length != 5) {
+            throw new IllegalArgumentException("Cron expression must have 5 fields (minute hour day month weekday): " + expression);
+        }
+        long daysOfWeek = parseField(fields[4], 0, 7, "day of week");
+        if ((daysOfWeek & (1L << 7)) != 0) {
+            daysOfWeek = (daysOfWeek | 1L) & ~(1L << 7); // 7 is Sunday too
+        }
+        return new CronExpression(expression.trim(),
+                parseField(fields[0], 0, 59, "minute"),
+                parseField(fields[1], 0, 23, "hour"),
+                parseField(fields[2], 1, 31, "day of month"),
+                parseField(fields[3], 1, 12, "month"),
+                daysOfWeek,
+                fields[2].equals("*"),
+                fields[4].equals("*"));
+    }
+
+    /**
+     * Gets the first matching time after the given one, or null if there is none within the next few years
+     */
+    public ZonedDateTime next(ZonedDateTime after) {
+        ZonedDateTime time = after.truncatedTo(ChronoUnit.MINUTES).plusMinutes(1);
+        ZonedDateTime limit = time.plusYears(5);
+        while (time.isBefore(limit)) {
+            if (!isSet(months, time.getMonthValue())) {
+                time = time.withDayOfMonth(1).truncatedTo(ChronoUnit.DAYS).plusMonths(1);
+            } else if (!matchesDay(time)) {
+                time = time.truncatedTo(ChronoUnit.DAYS).plusDays(1);
+            } else if (!isSet(hours, time.getHour())) {
+                time = time.truncatedTo(ChronoUnit.HOURS).plusHours(1);
+            } else if (!isSet(minutes, time.getMinute())) {
+                time = time.plusMinutes(1);
+            } else {
+                return time;
+            }
+        }
+        return null;
+    }
+
+    private boolean matchesDay(ZonedDateTime time) {
+        boolean dayOfMonth = isSet(daysOfMonth, time.getDayOfMonth());
+        boolean dayOfWeek = isSet(daysOfWeek, time.getDayOfWeek().getValue() % 7);
+        if (!anyDayOfMonth && !anyDayOfWeek) {
+            return dayOfMonth || dayOfWeek;
+        }
+        return dayOfMonth && dayOfWeek;
+    }
+
+    private static boolean isSet(long bits, int value) {
+        return (bits & (1L << value)) != 0;
+    }
+
+    private static long parseField(String field, int min, int max, String name) {
+        long bits = 0;
+        for (String part : field.split(",")) {
+            int step = 1;
+            String range = part;
+            int slash = part.indexOf('/');
+            if (slash >= 0) {
+                step = parseNumber(part.substring(slash + 1), name);
+                range = part.substring(0, slash);
+                if (step <= 0) {
+                    throw new IllegalArgumentException("Invalid step in " + name + " field: " + part);
+                }
+            }
+
+            int from;
+            int to;
+            if (range.equals("*")) {
+                from = min;
+                to = max;
+            } else {
+                int dash = range.indexOf('-');
+                if (dash > 0) {
+                    from = parseNumber(range.substring(0, dash), name);
+                    to = parseNumber(range.substring(dash + 1), name);
+                } else {
+                    from = parseNumber(range, name);
+                    to = slash >= 0 ? max : from; // "5/15" means from 5 to the end, every 15
+                }
+            }
+            if (from < min || to > max || from > to) {
+                throw new IllegalArgumentException("Value out of range (" + min + "-" + max + ") in " + name + " field: " + part);
+            }
+            for (int value = from; value <= to; value += step) {
+                bits |= 1L << value;
+            }
+        }
+        return bits;
+    }
+
+    private static int parseNumber(String text, String name) {
+        try {
+            return Integer.parseInt(text);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number in " + name + " field: " + text);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+}
@@ -0,0 +1,159 @@
+package com.jemsire.utils;
+
+import com.hypixel.hytale.server.core.universe.PlayerRef;
+import com.jemsire.config.AnnouncementConfig;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+/**
+ * Spreads a broadcast over several delivery steps instead of sending to every player at once.
+ * Each step hands the next batch of recipients to the sender; the batch size comes from the delivery window
+ * ({@code DeliveryWindowMillis}), is capped by {@code MaxRecipientsPerTick} and, with {@code AdaptiveDelivery},
+ * is tuned by an AIMD controller from the measured send latency of previous batches.
+ */
+public final class DeliveryPacer {
+    private DeliveryPacer() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    /** Time between delivery steps (one server tick) */
+    static final long STEP_MILLIS = 50;
+
+    // Adaptive controller: a batch should take at most this long to send; below it the batch grows by ADDITIVE_INCREASE,
+    // above it the batch is halved
+    private static final long TARGET_BATCH_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final int ADDITIVE_INCREASE = 4;
+
+    private static ScheduledExecutorService executor;
+
+    /**
+     * Checks whether the config asks for spread delivery
+     */
+    public static boolean isEnabled(AnnouncementConfig config) {
+        return config.getDeliveryWindowMillis() > 0 || config.getMaxRecipientsPerTick() > 0;
+    }
+
+    /**
+     * Starts a paced broadcast. The first batch is sent right away on the calling thread, later ones from the pacer thread.
+     *
+     * @param players Recipients in delivery order
+     * @param config  Delivery settings
+     * @param sender  Sends one batch; reports its send latency back through {@link Broadcast#recordLatency}
+     * @param onDone  Runs once the last batch has been handed to the sender (or delivery was stopped)
+     */
+    public static void start(List<PlayerRef> players, AnnouncementConfig config,
+                             BiConsumer<List<PlayerRef>, Broadcast> sender, Runnable onDone) {
+        Broadcast broadcast = new Broadcast(List.copyOf(players), config.getDeliveryWindowMillis(), config.getMaxRecipientsPerTick(),
+                config.isAdaptiveDelivery(), sender, onDone);
+        broadcast.step();
+    }
+
+    /**
+     * Stops the pacer thread; broadcasts still in progress are dropped
+     */
+    public static synchronized void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    private static synchronized ScheduledExecutorService executor() {
+        if (executor == null) {
+            executor = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r);
+                thread.setName("AnnouncementDelivery");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return executor;
+    }
+
+    /**
+     * One broadcast in progress
+     */
+    public static final class Broadcast {
+        private final List<PlayerRef> players;
+        private final BiConsumer<List<PlayerRef>, Broadcast> sender;
+        private final Runnable onDone;
+        private final boolean adaptive;
+        // Largest batch allowed by the window and per-tick limit
+        private final int pacedBatchSize;
+        private int batchSize;
+        private int position = 0;
+        // Slowest batch latency reported since the last step, in nanos (0 = nothing reported)
+        private final AtomicLong lastLatency = new AtomicLong();
+
+        Broadcast(List<PlayerRef> players, long windowMillis, int maxPerTick, boolean adaptive,
+                  BiConsumer<List<PlayerRef>, Broadcast> sender, Runnable onDone) {
+            this.players = players;
+            this.sender = sender;
+            this.onDone = onDone;
+            this.adaptive = adaptive;
+
+            int size = players.size();
+            if (windowMillis > 0) {
+                long steps = Math.max(1, windowMillis / STEP_MILLIS);
+                size = (int) Math.max(1, (players.size() + steps - 1) / steps);
+            }
+            if (maxPerTick > 0) {
+                size = Math.min(size, maxPerTick);
+            }
+            this.pacedBatchSize = Math.max(1, size);
+            this.batchSize = pacedBatchSize;
+        }
+
+        /**
+         * Reports how long sending a batch (or the part of it on one world) took
+         */
+        public void recordLatency(long nanos) {
+            lastLatency.accumulateAndGet(nanos, Math::max);
+        }
+
+        private void step() {
+            if (adaptive) {
+                adjustBatchSize(lastLatency.getAndSet(0));
+            }
+            int end = Math.min(players.size(), position + batchSize);
+            List<PlayerRef> batch = players.subList(position, end);
+            position = end;
+            try {
+                sender.accept(batch, this);
+            } catch (Exception e) {
+                Logger.severe("Unexpected error in paced delivery: " + e.getMessage(), e);
+            }
+
+            if (position < players.size()) {
+                try {
+                    executor().schedule(this::step, STEP_MILLIS, TimeUnit.MILLISECONDS);
+                    return;
+                } catch (RejectedExecutionException e) {
+                    Logger.warning("Delivery stopped, " + (players.size() - position) + " player(s) did not receive the announcement");
+                }
+            }
+            onDone.run();
+        }
+
+        /**
+         * AIMD: grow additively while batches are sent within the target, halve when they are not.
+         * Never exceeds the paced size, so the window and per-tick limit still hold.
+         */
+        private void adjustBatchSize(long latency) {
+            if (latency == 0) {
+                return;
+            }
+            if (latency > TARGET_BATCH_NANOS) {
+                batchSize = Math.max(1, batchSize / 2);
+            } else {
+                batchSize = Math.min(pacedBatchSize, batchSize + ADDITIVE_INCREASE);
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.jemsire.utils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Delivery counters for one broadcast, plus running totals since startup.
+ * Individual failures are only logged at debug level; each broadcast ends with a single summary line
+ * once every part of it (world tasks, paced batches) has finished.
+ */
+public final class DeliveryStats {
+    private static final LongAdder TOTAL_DELIVERED = new LongAdder();
+    private static final LongAdder TOTAL_FAILED = new LongAdder();
+    private static final LongAdder TOTAL_TIMED_OUT = new LongAdder();
+    private static final LongAdder TOTAL_SKIPPED = new LongAdder();
+
+    private final String label;
+    private final long startedAt = System.nanoTime();
+    private final AtomicInteger delivered = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final AtomicInteger timedOut = new AtomicInteger();
+    private final AtomicInteger skipped = new AtomicInteger();
+    private final AtomicInteger soundFailed = new AtomicInteger();
+    // Parts still running, plus one for the dispatcher until it calls end() for itself
+    private final AtomicInteger pending = new AtomicInteger(1);
+
+    DeliveryStats(String label) {
+        this.label = label;
+    }
+
+    /**
+     * Registers a part of the broadcast that will call {@link #end()} when it is done
+     */
+    void begin() {
+        pending.incrementAndGet();
+    }
+
+    /**
+     * Marks a part of the broadcast as done; the last one logs the summary
+     */
+    void end() {
+        if (pending.decrementAndGet() == 0) {
+            report();
+        }
+    }
+
+    void recordDelivered() {
+        delivered.incrementAndGet();
+        TOTAL_DELIVERED.increment();
+    }
+
+    void recordFailed() {
+        failed.incrementAndGet();
+        TOTAL_FAILED.increment();
+    }
+
+    void recordTimedOut() {
+        timedOut.incrementAndGet();
+        TOTAL_TIMED_OUT.increment();
+    }
+
+    void recordSkipped() {
+        skipped.incrementAndGet();
+        TOTAL_SKIPPED.increment();
+    }
+
+    void recordSoundFailed() {
+        soundFailed.incrementAndGet();
+    }
+
+    private void report() {
+        int problems = failed.get() + timedOut.get() + skipped.get() + soundFailed.get();
+        int total = delivered.get() + failed.get() + timedOut.get() + skipped.get();
+        String summary = "Announcement " + label + " delivered to " + delivered.get() + "/" + total + " player(s) in "
+                + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt) + " ms ("
+                + failed.get() + " failed, " + timedOut.get() + " timed out, " + skipped.get() + " skipped, "
+                + soundFailed.get() + " sound failure(s))";
+        if (problems > 0) {
+            Logger.info(summary);
+        } else {
+            Logger.debug(summary);
+        }
+    }
+
+    public static long totalDelivered() { return TOTAL_DELIVERED.sum(); }
+    public static long totalFailed() { return TOTAL_FAILED.sum(); }
+    public static long totalTimedOut() { return TOTAL_TIMED_OUT.sum(); }
+    public static long totalSkipped() { return TOTAL_SKIPPED.sum(); }
+}
@@ -0,0 +1,91 @@
+package com.jemsire.utils;
+
+/**
+ * Approximate glyph widths of the chat font, used to center chat lines.
+ * Widths are in font units where an average glyph is {@link #DEFAULT} wide; bold text is one unit wider per glyph.
+ * The table is not measured from the Hytale font: it is calibrated so that a space is as wide as an average glyph,
+ * which makes plain text of average glyphs center exactly like the previous 80-column character count.
+ * Only narrow ASCII glyphs, combining marks (no space) and East Asian wide/fullwidth characters (two glyphs) differ.
+ */
+public final class GlyphWidths {
+    private GlyphWidths() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    /** Width of an average glyph */
+    public static final int DEFAULT = 6;
+
+    /** Width of a space, the unit centering padding is made of; equal to {@link #DEFAULT} so padding matches a character count */
+    public static final int SPACE = DEFAULT;
+
+    /** Width of a wide (CJK, fullwidth) glyph */
+    public static final int WIDE = DEFAULT * 2;
+
+    // Widths for printable ASCII (0x20-0x7E); everything not listed is DEFAULT
+    private static final byte[] ASCII = new byte[128];
+
+    static {
+        for (int c = 0; c < ASCII.length; c++) {
+            ASCII[c] = DEFAULT;
+        }
+        set(2, "!',.:;i|");
+        set(3, "`l");
+        set(4, "It[]");
+        set(5, "\"()*<>fk{}");
+        set(7, "@~");
+    }
+
+    private static void set(int width, String chars) {
+        for (int i = 0; i < chars.length(); i++) {
+            ASCII[chars.charAt(i)] = (byte) width;
+        }
+    }
+
+    /**
+     * Gets the width of a single code point
+     */
+    public static int width(int codePoint, boolean bold) {
+        int width;
+        if (codePoint < ASCII.length) {
+            width = codePoint < 0x20 ? 0 : ASCII[codePoint];
+        } else if (isZeroWidth(codePoint)) {
+            return 0;
+        } else {
+            width = isWide(codePoint) ? WIDE : DEFAULT;
+        }
+        return bold && width > 0 ? width + 1 : width;
+    }
+
+    /**
+     * Gets the width of text[from, to), counting surrogate pairs as one glyph
+     */
+    public static int width(CharSequence text, int from, int to, boolean bold) {
+        int total = 0;
+        int i = from;
+        while (i < to) {
+            int codePoint = Character.codePointAt(text, i);
+            total += width(codePoint, bold);
+            i += Character.charCount(codePoint);
+        }
+        return total;
+    }
+
+    private static boolean isZeroWidth(int codePoint) {
+        int type = Character.getType(codePoint);
+        return type == Character.NON_SPACING_MARK
+                || type == Character.ENCLOSING_MARK
+                || type == Character.FORMAT
+                || (codePoint >= 0xFE00 && codePoint <= 0xFE0F); // variation selectors
+    }
+
+    private static boolean isWide(int codePoint) {
+        return (codePoint >= 0x1100 && codePoint <= 0x115F)      // Hangul Jamo
+                || (codePoint >= 0x2E80 && codePoint <= 0xA4CF)  // CJK radicals .. Yi
+                || (codePoint >= 0xAC00 && codePoint <= 0xD7A3)  // Hangul syllables
+                || (codePoint >= 0xF900 && codePoint <= 0xFAFF)  // CJK compatibility ideographs
+                || (codePoint >= 0xFF00 && codePoint <= 0xFF60)  // Fullwidth forms
+                || (codePoint >= 0xFFE0 && codePoint <= 0xFFE6)
+                || (codePoint >= 0x1F300 && codePoint <= 0x1FAFF) // Emoji and pictographs
+                || (codePoint >= 0x20000 && codePoint <= 0x3FFFD); // CJK extensions
+    }
+}
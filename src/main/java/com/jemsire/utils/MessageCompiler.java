@@ -0,0 +1,132 @@
+package com.jemsire.utils;
+
+import com.hypixel.hytale.protocol.ItemWithAllMetadata;
+import com.jemsire.config.AnnouncementMessage;
+import com.jemsire.plugin.AnnouncementPlugin;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compiles announcement messages into {@link CompiledMessage}s.
+ * All text processing (offset, font-metric centering, TinyMsg and legacy code parsing) and
+ * asset lookups (notification icon, sound index, through {@link AssetCache}) happen here once per load instead of once per player.
+ * With JemPlaceholders installed, %placeholders% are split out as {@link MessageTemplate} slots so only they are resolved per player.
+ * Targeting fields are compiled into an {@link AudienceFilter}.
+ */
+public class MessageCompiler {
+    private MessageCompiler() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    /**
+     * Compiles a message. Never returns null; invalid parts (unknown icon or sound) are dropped with a warning.
+     *
+     * @param name    The message file name, used in log output (may be null)
+     * @param message The message configuration to compile
+     * @return The compiled message
+     */
+    public static CompiledMessage compile(String name, AnnouncementMessage message) {
+        String label = name != null ? name : "<unnamed>";
+        boolean placeholders = placeholdersEnabled();
+
+        List<MessageTemplate> chatLines = new ArrayList<>();
+        if (message.hasChatMessages()) {
+            for (String chatMessage : message.getChatMessages()) {
+                if (chatMessage == null || chatMessage.isEmpty()) {
+                    continue; // Skip empty messages
+                }
+                chatLines.add(compileChatLine(chatMessage, message.isCenterChat(), placeholders));
+            }
+            // One chat packet per player instead of one per line
+            if (chatLines.size() > 1 && combineChatLines(message)) {
+                chatLines = List.of(MessageTemplate.join(chatLines));
+            }
+        }
+
+        MessageTemplate notificationTitle = null;
+        MessageTemplate notificationSubtitle = null;
+        ItemWithAllMetadata notificationIcon = null;
+        AnnouncementMessage.NotificationConfig notification = message.notification();
+        if (notification != null) {
+            notificationTitle = TinyMsg.parseTemplate(notification.title(), placeholders);
+            notificationSubtitle = TinyMsg.parseTemplate(notification.subtitle(), placeholders);
+
+            // Icon is optional; an invalid one is reported once by the asset cache instead of on every broadcast
+            if (notification.hasIcon()) {
+                notificationIcon = AssetCache.icon(notification.icon(), label);
+            }
+        }
+
+        // Title does not support color text, so it is sent as plain text
+        MessageTemplate title = null;
+        MessageTemplate subtitle = null;
+        AnnouncementMessage.TitleConfig titleConfig = message.title();
+        if (titleConfig != null) {
+            title = MessageTemplate.plain(toPlainText(titleConfig.title()), placeholders);
+            subtitle = MessageTemplate.plain(toPlainText(titleConfig.subtitle()), placeholders);
+        }
+
+        int soundIndex = -1;
+        AnnouncementMessage.SoundConfig sound = message.sound();
+        if (sound != null && sound.soundName() != null && !sound.soundName().isEmpty()) {
+            soundIndex = AssetCache.soundIndex(sound.soundName(), label);
+        }
+
+        return new CompiledMessage(name, message, chatLines, notificationTitle, notificationSubtitle,
+                notificationIcon, title, subtitle, soundIndex, AudienceFilter.of(message), compileCron(message, label));
+    }
+
+    /**
+     * Compiles one chat line. Parsing, width measurement and &lt;offset:N&gt; handling happen in one pass;
+     * centering padding is computed here (or per player from the static width, for lines with placeholders).
+     * One &lt;offset:N&gt; per line adjusts centering: positive = more leading spaces (shift right), negative = fewer (shift left). Tag is stripped and not shown.
+     */
+    private static MessageTemplate compileChatLine(String chatMessage, boolean shouldCenter, boolean placeholders) {
+        // Parse with TinyMsg API (tags: <color:X>, <gradient:X:Y>, <b>, <link:url>, etc.; legacy & codes are parsed in the same pass)
+        MessageTemplate line = TinyMsg.parseTemplate(chatMessage, placeholders);
+        return shouldCenter ? line.centered() : line;
+    }
+
+    /**
+     * Parses the message's Cron schedule; an invalid one is reported and the message falls back to IntervalSeconds or the rotation
+     */
+    private static CronExpression compileCron(AnnouncementMessage message, String label) {
+        String cron = message.getCron();
+        if (cron == null || cron.isBlank()) {
+            return null;
+        }
+        try {
+            return CronExpression.parse(cron);
+        } catch (IllegalArgumentException e) {
+            Logger.warning("Invalid Cron in " + label + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Whether a message's chat lines are sent as one message: the message's own CombineChatLines, else the global one
+     */
+    private static boolean combineChatLines(AnnouncementMessage message) {
+        if (message.getCombineChatLines() != null) {
+            return message.getCombineChatLines();
+        }
+        AnnouncementPlugin plugin = AnnouncementPlugin.get();
+        return plugin != null && plugin.getAnnouncementConfig().get().isCombineChatLines();
+    }
+
+    /**
+     * Whether %placeholders% should become per-player slots (only when JemPlaceholders is installed)
+     */
+    private static boolean placeholdersEnabled() {
+        AnnouncementPlugin plugin = AnnouncementPlugin.get();
+        return plugin != null && plugin.isJemPlaceholdersEnabled();
+    }
+
+    private static String toPlainText(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        return ColorUtils.stripColorCodes(text);
+    }
+}
@@ -1,6 +1,7 @@
 package com.jemsire.utils;
 
 import com.hypixel.hytale.server.core.util.Config;
+import com.jemsire.config.AnnouncementConfig;
 import com.jemsire.config.AnnouncementMessage;
 import com.jemsire.plugin.AnnouncementPlugin;
 
@@ -15,11 +16,23 @@ public class MessageLoader {
     private MessageLoader() {
         throw new UnsupportedOperationException("Utility class");
     }
-    private static final List<AnnouncementMessage> loadedMessages = new CopyOnWriteArrayList<>();
+    private static final List<CompiledMessage> loadedMessages = new CopyOnWriteArrayList<>();
     private static final Map<String, Config<AnnouncementMessage>> messageConfigs = new HashMap<>();
+    // Messages in the main rotation (those without their own schedule), in priority order, and all messages by name
+    private static volatile Rotation rotation = new Rotation(List.of(), new int[0], new AliasTable(new int[0]), 0L);
+    private static volatile Map<String, CompiledMessage> messagesByName = Map.of();
+    private static SplitMix64 random = new SplitMix64();
+    private static final ShuffleBag shuffleBag = new ShuffleBag();
+    private static final SmoothWeightedRoundRobin weightedRoundRobin = new SmoothWeightedRoundRobin();
+
+    /**
+     * The rotation messages with their weight table, swapped together on load so they always match.
+     * The fingerprint identifies the ordered message names, so rotation state can be kept when a reload changes nothing.
+     */
+    private record Rotation(List<CompiledMessage> messages, int[] weights, AliasTable weightTable, long fingerprint) {}
     
     /**
-     * Loads all message files from the messages folder.
+     * Loads all message files from the messages folder and compiles them for sending.
      * Configs must already be registered in the plugin constructor.
      */
     public static void loadMessages() {
@@ -32,6 +45,8 @@ public class MessageLoader {
             return;
         }
         
+        applyRenderSettings(plugin);
+
         Map<String, Config<AnnouncementMessage>> configs = plugin.getMessageConfigs();
         
         if (configs.isEmpty()) {
@@ -56,7 +71,7 @@ public class MessageLoader {
                 if (message != null) {
                     // Only load enabled messages
                     if (message.isEnabled()) {
-                        loadedMessages.add(message);
+                        loadedMessages.add(MessageCompiler.compile(configName, message));
                         messageConfigs.put(configName, config);
                         loadedCount++;
                         Logger.info("Loaded message: " + configName);
@@ -72,17 +87,18 @@ public class MessageLoader {
         }
         
         // Sort by priority (higher priority first)
-        List<AnnouncementMessage> sortedMessages = new ArrayList<>(loadedMessages);
-        sortedMessages.sort((a, b) -> Integer.compare(b.getPriority(), a.getPriority()));
+        List<CompiledMessage> sortedMessages = new ArrayList<>(loadedMessages);
+        sortedMessages.sort((a, b) -> Integer.compare(b.source().getPriority(), a.source().getPriority()));
         
         loadedMessages.clear();
         loadedMessages.addAll(sortedMessages);
+        indexMessages();
         
         Logger.info("Successfully loaded " + loadedCount + " message(s)");
     }
     
     /**
-     * Reloads all message files.
+     * Reloads all message files and recompiles them.
      * Calls .load() then .get() on each config to get updated data.
      */
     public static void reloadMessages() {
@@ -97,6 +113,10 @@ public class MessageLoader {
         // Clear current messages
         loadedMessages.clear();
         messageConfigs.clear();
+
+        applyRenderSettings(plugin);
+        // Resolve icons and sounds again so problems are reported for this load
+        AssetCache.invalidate();
         
         Map<String, Config<AnnouncementMessage>> configs = plugin.getMessageConfigs();
         
@@ -115,7 +135,7 @@ public class MessageLoader {
                 if (message != null) {
                     // Only load enabled messages
                     if (message.isEnabled()) {
-                        loadedMessages.add(message);
+                        loadedMessages.add(MessageCompiler.compile(configName, message));
                         messageConfigs.put(configName, config);
                         loadedCount++;
                     }
@@ -130,47 +150,215 @@ public class MessageLoader {
         for (Map.Entry<String, AnnouncementMessage> entry : dynamicConfigs.entrySet()) {
             AnnouncementMessage message = entry.getValue();
             if (message != null && message.isEnabled()) {
-                loadedMessages.add(message);
+                loadedMessages.add(MessageCompiler.compile(entry.getKey(), message));
                 loadedCount++;
             }
         }
         
         // Sort by priority (higher priority first)
-        List<AnnouncementMessage> sortedMessages = new ArrayList<>(loadedMessages);
-        sortedMessages.sort((a, b) -> Integer.compare(b.getPriority(), a.getPriority()));
+        List<CompiledMessage> sortedMessages = new ArrayList<>(loadedMessages);
+        sortedMessages.sort((a, b) -> Integer.compare(b.source().getPriority(), a.source().getPriority()));
         
         loadedMessages.clear();
         loadedMessages.addAll(sortedMessages);
+        indexMessages();
         
         Logger.info("Successfully reloaded " + loadedCount + " message(s)");
     }
     
     /**
-     * Gets all loaded messages
+     * Recompiles the loaded messages from their current configuration, without re-reading the message files.
+     * Used when game assets are reloaded, so icons and sounds are resolved again.
      */
-    public static List<AnnouncementMessage> getLoadedMessages() {
+    public static void recompileMessages() {
+        loadedMessages.replaceAll(message -> MessageCompiler.compile(message.name(), message.source()));
+        indexMessages();
+        Logger.debug("Recompiled " + loadedMessages.size() + " message(s)");
+    }
+
+    /**
+     * Rebuilds the rotation list and name lookup from the loaded messages
+     */
+    private static void indexMessages() {
+        List<CompiledMessage> messages = new ArrayList<>();
+        Map<String, CompiledMessage> byName = new HashMap<>();
+        for (CompiledMessage message : loadedMessages) {
+            if (!message.hasOwnSchedule()) {
+                messages.add(message);
+            }
+            if (message.name() != null) {
+                byName.put(message.name(), message);
+            }
+        }
+        int[] weights = new int[messages.size()];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = messages.get(i).source().getWeight();
+        }
+        rotation = new Rotation(List.copyOf(messages), weights, new AliasTable(weights), fingerprint(messages));
+        messagesByName = Map.copyOf(byName);
+        retainLastSendTimes();
+    }
+
+    /**
+     * Forgets the saved last-send times of messages that no longer exist, so renames and removals do not pile up
+     */
+    private static void retainLastSendTimes() {
+        Set<String> names = new HashSet<>(messagesByName.keySet());
+        names.add(AnnouncementScheduler.ROTATION_KEY);
+        RotationState.retainLastFired(names);
+    }
+
+    /**
+     * FNV-1a hash of the message names in rotation order
+     */
+    private static long fingerprint(List<CompiledMessage> messages) {
+        long hash = 0xcbf29ce484222325L;
+        for (CompiledMessage message : messages) {
+            String name = message.name() != null ? message.name() : "";
+            for (int i = 0; i < name.length(); i++) {
+                hash = (hash ^ name.charAt(i)) * 0x100000001b3L;
+            }
+            hash = (hash ^ 0xFFFF) * 0x100000001b3L; // Separator, so "ab","c" differs from "a","bc"
+        }
+        return hash;
+    }
+
+    /**
+     * Pushes render settings from the main config to the renderer and placeholder resolver before messages are compiled
+     */
+    private static void applyRenderSettings(AnnouncementPlugin plugin) {
+        try {
+            AnnouncementConfig config = plugin.getAnnouncementConfig().get();
+            TinyMsg.setGradientMaxSegments(config.getGradientMaxSegments());
+            PlaceholderResolver.setGlobalPrefixes(config.getGlobalPlaceholders());
+        } catch (Exception e) {
+            Logger.warning("Could not apply render settings: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Gets all loaded (compiled) messages
+     */
+    public static List<CompiledMessage> getLoadedMessages() {
         return new ArrayList<>(loadedMessages);
     }
     
     /**
-     * Gets a random message from the loaded messages
+     * Gets a loaded message by name
+     */
+    public static CompiledMessage getMessage(String name) {
+        return name != null ? messagesByName.get(name) : null;
+    }
+
+    /**
+     * Gets the messages that are sent on their own schedule (IntervalSeconds or Cron) instead of in the rotation
+     */
+    public static List<CompiledMessage> getScheduledMessages() {
+        List<CompiledMessage> scheduled = new ArrayList<>();
+        for (CompiledMessage message : loadedMessages) {
+            if (message.hasOwnSchedule()) {
+                scheduled.add(message);
+            }
+        }
+        return scheduled;
+    }
+
+    /**
+     * Gets a random message from the rotation, weighted by each message's Weight (or Priority)
      */
-    public static AnnouncementMessage getRandomMessage() {
-        if (loadedMessages.isEmpty()) {
+    public static CompiledMessage getRandomMessage() {
+        Rotation current = rotation;
+        if (current.messages().isEmpty()) {
             return null;
         }
-        Random random = new Random();
-        return loadedMessages.get(random.nextInt(loadedMessages.size()));
+        int index;
+        synchronized (MessageLoader.class) {
+            index = current.weightTable().sample(random);
+            RotationState.writeRandom(random.state());
+        }
+        return current.messages().get(index);
+    }
+
+    /**
+     * Gets the next message from the shuffle bag: every rotation message once per round, in a new random order each round,
+     * never the same message twice in a row. The bag carries over reloads that leave the rotation unchanged.
+     */
+    public static CompiledMessage getShuffledMessage() {
+        Rotation current = rotation;
+        if (current.messages().isEmpty()) {
+            return null;
+        }
+        int index;
+        synchronized (MessageLoader.class) {
+            index = shuffleBag.next(current.messages().size(), current.fingerprint(), random);
+            RotationState.writeRandom(random.state());
+            RotationState.writeShuffleBag(shuffleBag.fingerprint(), shuffleBag.order(), shuffleBag.position(), shuffleBag.last());
+        }
+        return current.messages().get(index);
+    }
+
+    /**
+     * Gets the next message in smooth weighted round-robin order: each rotation message appears in proportion to its
+     * Weight (or Priority), evenly interleaved and in the same order every time. Carries over reloads that change nothing.
+     */
+    public static CompiledMessage getWeightedMessage() {
+        Rotation current = rotation;
+        if (current.messages().isEmpty()) {
+            return null;
+        }
+        int index;
+        synchronized (MessageLoader.class) {
+            index = weightedRoundRobin.next(current.weights(), current.fingerprint());
+            RotationState.writeRoundRobin(current.fingerprint(), weightedRoundRobin.current());
+        }
+        return current.messages().get(index);
+    }
+
+    /**
+     * Restarts random selection from a seed, making the random order reproducible
+     */
+    public static synchronized void setRandomSeed(long seed) {
+        random = new SplitMix64(seed);
+    }
+
+    /**
+     * Continues the random generator, shuffle bag and round-robin from the saved {@link RotationState}.
+     * The bag and round-robin are only restored if the rotation has the same messages as when they were saved.
+     */
+    public static synchronized void restoreRotationState() {
+        RotationState.Snapshot state = RotationState.snapshot();
+        if (state == null) {
+            return;
+        }
+        retainLastSendTimes();
+        if (state.randomState() != 0L) {
+            random = new SplitMix64(state.randomState());
+        }
+        Rotation current = rotation;
+        if (state.bagOrder().length == current.messages().size() && state.bagFingerprint() == current.fingerprint()) {
+            shuffleBag.restore(state.bagOrder(), state.bagPosition(), state.bagLast(), state.bagFingerprint());
+        }
+        if (state.roundRobin().length == current.messages().size() && state.roundRobinFingerprint() == current.fingerprint()) {
+            weightedRoundRobin.restore(current.weights(), state.roundRobin(), current.fingerprint());
+        }
     }
     
     /**
-     * Gets the next message in sequential order (with index tracking)
+     * Gets the next message of the rotation in sequential order (with index tracking)
      */
-    public static AnnouncementMessage getNextSequentialMessage(int currentIndex) {
-        if (loadedMessages.isEmpty()) {
+    public static CompiledMessage getNextSequentialMessage(int currentIndex) {
+        List<CompiledMessage> messages = rotation.messages();
+        if (messages.isEmpty()) {
             return null;
         }
-        return loadedMessages.get(currentIndex % loadedMessages.size());
+        return messages.get(currentIndex % messages.size());
+    }
+    
+    /**
+     * Gets the number of messages in the rotation
+     */
+    public static int getRotationMessageCount() {
+        return rotation.messages().size();
     }
     
     /**
@@ -4,8 +4,6 @@ import com.hypixel.hytale.component.Ref;
 import com.hypixel.hytale.protocol.ItemWithAllMetadata;
 import com.hypixel.hytale.protocol.SoundCategory;
 import com.hypixel.hytale.server.core.Message;
-import com.hypixel.hytale.server.core.asset.type.soundevent.config.SoundEvent;
-import com.hypixel.hytale.server.core.inventory.ItemStack;
 import com.hypixel.hytale.server.core.modules.entity.EntityModule;
 import com.hypixel.hytale.server.core.modules.entity.component.TransformComponent;
 import com.hypixel.hytale.server.core.universe.PlayerRef;
@@ -15,29 +13,95 @@ import com.hypixel.hytale.server.core.universe.world.World;
 import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
 import com.hypixel.hytale.server.core.util.EventTitleUtil;
 import com.hypixel.hytale.server.core.util.NotificationUtil;
+import com.jemsire.config.AnnouncementConfig;
 import com.jemsire.config.AnnouncementMessage;
 import com.jemsire.plugin.AnnouncementPlugin;
-import com.jemsire.jemplaceholders.api.JemPlaceholdersAPI;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Utility class for sending different types of announcement messages to players.
  * Supports chat, action bar, title, and sound messages.
+ * Recipients come grouped by world from {@link AudienceIndex} and each world delivers to its own players on its own thread,
+ * handling every channel for a player in one pass. Large broadcasts can be spread over several ticks by {@link DeliveryPacer}.
+ * Each recipient has a send deadline, and players that keep failing are skipped for a while by {@link RecipientCircuitBreaker}.
  */
 public class MessageSender {
     private MessageSender() {
         throw new UnsupportedOperationException("Utility class");
     }
 
+    // DeliveryBackend value that sends chat, notifications and titles from virtual threads
+    private static final String BACKEND_VIRTUAL_THREADS = "VIRTUAL_THREADS";
+
+    // Virtual threads for the VIRTUAL_THREADS backend
+    private static final ThreadFactory SEND_THREADS = Thread.ofVirtual().name("AnnouncementSend-", 0).factory();
+
+    // Time a world thread spends sending before it lets its other work run and continues in a new task
+    private static final long WORLD_SEND_BUDGET_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    // Outcomes of sending to one recipient
+    static final int SENT = 0;
+    static final int FAILED = 1;
+    static final int TIMED_OUT = 2;
+    static final int NO_SLOT = 3; // Every send slot stayed busy; the recipient is not at fault
+
+    /**
+     * Settings and state shared by every part of one broadcast
+     */
+    private static final class Delivery {
+        final Universe universe;
+        final CompiledMessage message;
+        final PlaceholderResolver placeholders;
+        final DeliveryStats stats;
+        final int virtualSends; // 0 = send from the world threads
+        final SendSlots sendSlots; // Shared by every batch of the broadcast; null when sending from the world threads
+        final long timeoutNanos; // 0 = no deadline
+        final int failureThreshold;
+        final long cooldownNanos;
+
+        Delivery(Universe universe, CompiledMessage message, PlaceholderResolver placeholders, AnnouncementConfig config) {
+            this.universe = universe;
+            this.message = message;
+            this.placeholders = placeholders;
+            this.stats = new DeliveryStats(message.name() != null ? message.name() : "<unnamed>");
+            this.virtualSends = isVirtualThreadBackend(config) ? Math.max(1, config.getMaxConcurrentSends()) : 0;
+            this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, config.getRecipientTimeoutMillis()));
+            this.sendSlots = virtualSends > 0 ? new SendSlots(virtualSends, timeoutNanos) : null;
+            this.failureThreshold = Math.max(1, config.getRecipientFailureThreshold());
+            this.cooldownNanos = TimeUnit.SECONDS.toNanos(Math.max(0, config.getRecipientCooldownSeconds()));
+        }
+    }
+
     /**
-     * Sends an announcement message to all online players
+     * Compiles and sends an announcement message to all online players.
+     * Used for one-off sends (e.g. /announce); scheduled announcements use the pre-compiled messages from {@link MessageLoader}.
      */
     public static void sendAnnouncement(AnnouncementMessage message) {
         if (message == null) {
             Logger.warning("Message is null, cannot send announcement");
             return;
         }
+        sendAnnouncement(MessageCompiler.compile(null, message));
+    }
+
+    /**
+     * Sends a compiled announcement message to all online players.
+     * Delivery is dispatched to each world's executor, so this returns before all players have received it.
+     */
+    public static void sendAnnouncement(CompiledMessage message) {
+        if (message == null) {
+            Logger.warning("Message is null, cannot send announcement");
+            return;
+        }
 
         AnnouncementPlugin plugin = AnnouncementPlugin.get();
         if (plugin == null) {
@@ -51,32 +115,35 @@ public class MessageSender {
             return;
         }
 
-        // Get all online players
-        List<PlayerRef> players = universe.getPlayers();
-        if (players.isEmpty()) {
+        // Online players by world: the prebuilt arrays from the audience index, or partitioned here if it is not running
+        List<AudienceIndex.WorldAudience> audiences = AudienceIndex.isReady()
+                ? AudienceIndex.byWorld()
+                : partition(universe.getPlayers(), universe);
+        if (audiences.isEmpty()) {
             Logger.debug("No players online, skipping announcement");
             return; // No players online
         }
 
-        try {
-            // Send chat messages if present
-            if (message.hasChatMessages()) {
-                sendChatMessages(players, message.getChatMessages(), message.isCenterChat());
-            }
-
-            // Send notification if present
-            if (message.hasNotification()) {
-                sendNotification(players, message.notification());
-            }
+        // Only the players in the targeted worlds (and with the required permission)
+        audiences = message.audience().select(audiences);
+        if (audiences.isEmpty()) {
+            Logger.debug("No matching players for announcement " + message.name() + ", skipping");
+            return;
+        }
 
-            // Send title if present
-            if (message.hasTitle()) {
-                sendTitle(players, message.title());
-            }
+        // Placeholders are resolved once per broadcast (globals) or once per player (the rest); none for static messages
+        PlaceholderResolver placeholders = message.isStatic() ? null : new PlaceholderResolver();
 
-            // Play sound if present
-            if (message.hasSound()) {
-                playSound(players, message.sound());
+        try {
+            AnnouncementConfig config = plugin.getAnnouncementConfig().get();
+            Delivery delivery = new Delivery(universe, message, placeholders, config);
+            if (DeliveryPacer.isEnabled(config)) {
+                // Spread over several ticks; each batch is dispatched like a full broadcast
+                DeliveryPacer.start(flatten(audiences), config,
+                        (batch, broadcast) -> dispatch(partition(batch, universe), delivery, broadcast), delivery.stats::end);
+            } else {
+                dispatch(audiences, delivery, null);
+                delivery.stats.end();
             }
         } catch (Exception e) {
             Logger.severe("Unexpected error in sendAnnouncement: " + e.getMessage(), e);
@@ -84,198 +151,373 @@ public class MessageSender {
     }
 
     /**
-     * Sends chat messages to all players (in order).
-     * Uses TinyMsg API: parses tags like &lt;color:X&gt;, &lt;gradient:X:Y&gt;, &lt;b&gt;, &lt;link:url&gt;.
-     * Legacy &amp; color codes are converted to TinyMsg tags before parsing.
-     * Messages are centered if the message's Center setting is enabled.
-     * One &lt;offset:N&gt; per line adjusts centering: positive = more leading spaces (shift right), negative = fewer (shift left). Tag is stripped and not shown.
+     * Stops watching VIRTUAL_THREADS sends; sends that passed their deadline and are still running are interrupted
      */
-    private static void sendChatMessages(List<PlayerRef> players, String[] chatMessages, boolean shouldCenter) {
-        if (chatMessages == null || chatMessages.length == 0) {
-            Logger.warning("Chat messages array was empty");
-            return;
-        }
+    public static void shutdown() {
+        SendSlots.shutdown();
+    }
 
-        //Send to each player
+    /**
+     * Groups players by world. Uses the audience index when it is running, otherwise looks each world up.
+     * Players that are not in a (known) world end up in a group with a null world.
+     */
+    private static List<AudienceIndex.WorldAudience> partition(List<PlayerRef> players, Universe universe) {
+        boolean indexed = AudienceIndex.isReady();
+        Map<World, List<PlayerRef>> playersByWorld = new HashMap<>();
+        Map<UUID, World> worlds = new HashMap<>();
+        List<PlayerRef> withoutWorld = new ArrayList<>();
         for (PlayerRef player : players) {
+            World world;
+            if (indexed) {
+                world = AudienceIndex.worldOf(player);
+            } else {
+                UUID worldUuid = player.getWorldUuid();
+                world = worldUuid != null ? worlds.computeIfAbsent(worldUuid, universe::getWorld) : null;
+            }
+            if (world == null) {
+                withoutWorld.add(player);
+            } else {
+                playersByWorld.computeIfAbsent(world, w -> new ArrayList<>()).add(player);
+            }
+        }
 
-            // Send each message in order
-            for (String chatMessage : chatMessages) {
-                if (chatMessage == null || chatMessage.isEmpty()) {
-                    continue; // Skip empty messages
-                }
-
-                String parsedMessage = chatMessage;
-                //if (AnnouncementPlugin.get().isJemPlaceholdersEnabled()) {
-                //    parsedMessage = JemPlaceholdersAPI.setPlaceholders(player, chatMessage);
-                //}
-
-                // One <offset:N> per line: positive = more leading spaces, negative = fewer (stripped before display)
-                int offset = ColorUtils.getOffset(parsedMessage);
-                String withoutOffsetTags = ColorUtils.stripOffsetTags(parsedMessage);
-                String messageToSend = shouldCenter ? centerText(withoutOffsetTags, offset) : withoutOffsetTags;
+        List<AudienceIndex.WorldAudience> audiences = new ArrayList<>(playersByWorld.size() + 1);
+        for (Map.Entry<World, List<PlayerRef>> entry : playersByWorld.entrySet()) {
+            audiences.add(new AudienceIndex.WorldAudience(entry.getKey(), entry.getValue().toArray(new PlayerRef[0])));
+        }
+        if (!withoutWorld.isEmpty()) {
+            audiences.add(new AudienceIndex.WorldAudience(null, withoutWorld.toArray(new PlayerRef[0])));
+        }
+        return audiences;
+    }
 
-                // Parse with TinyMsg API (tags: <color:X>, <gradient:X:Y>, <b>, <link:url>, etc.); legacy & codes converted first
-                String processedMessage = ColorUtils.convertLegacyColorCodes(messageToSend);
-                Message message = TinyMsg.parse(processedMessage);
+    private static List<PlayerRef> flatten(List<AudienceIndex.WorldAudience> audiences) {
+        List<PlayerRef> players = new ArrayList<>(count(audiences));
+        for (AudienceIndex.WorldAudience audience : audiences) {
+            players.addAll(Arrays.asList(audience.players()));
+        }
+        return players;
+    }
 
-                try {
-                    player.sendMessage(message);
-                } catch (Exception e) {
-                    Logger.warning("Failed to send chat message to " + player.getUsername() + ": " + e.getMessage());
-                }
-            }
+    private static int count(List<AudienceIndex.WorldAudience> audiences) {
+        int count = 0;
+        for (AudienceIndex.WorldAudience audience : audiences) {
+            count += audience.players().length;
         }
+        return count;
+    }
+
+    private static boolean isVirtualThreadBackend(AnnouncementConfig config) {
+        String backend = config.getDeliveryBackend();
+        return backend != null && backend.trim().equalsIgnoreCase(BACKEND_VIRTUAL_THREADS);
     }
 
     /**
-     * Centers text by calculating display width and adding leading spaces.
-     * Uses visible width (tags/hex not counted). Optional offset adjusts: positive = more spaces (shift right), negative = fewer (shift left).
-     *
-     * @param text   The text to center (may contain TinyMsg tags and legacy &amp; codes; &lt;offset:N&gt; should already be stripped)
-     * @param offset Adjustment to leading spaces (e.g. from &lt;offset:5&gt; or &lt;offset:-2&gt; tags)
-     * @return The centered text with spaces prepended
+     * Dispatches a message to players (grouped by world) with the configured backend
+     * @param pacing The paced broadcast the players belong to (receives send latencies), or null
      */
-    private static String centerText(String text, int offset) {
-        if (text == null || text.isEmpty()) {
-            return text;
+    private static void dispatch(List<AudienceIndex.WorldAudience> audiences, Delivery delivery, DeliveryPacer.Broadcast pacing) {
+        if (delivery.virtualSends <= 0) {
+            dispatchToWorlds(audiences, delivery, pacing, true);
+            return;
         }
-        int displayWidth = ColorUtils.getVisibleWidthForCentering(text);
-        int centerWidth = 80;
-        int spacesNeeded = (centerWidth - displayWidth) / 2 + offset;
-        return " ".repeat(Math.max(0, spacesNeeded)) + text;
+        // Sounds need the world thread either way; text channels go to virtual threads
+        if (delivery.message.hasSound()) {
+            dispatchToWorlds(audiences, delivery, null, false);
+        }
+        sendOnVirtualThreads(audiences, delivery, pacing);
     }
 
-
     /**
-     * Sends a notification to all players (similar to item pickup notifications)
+     * Sends the text channels of a message with one virtual thread per recipient, at most MaxConcurrentSends at a time.
+     * Returns right away: the calling thread (scheduler or pacer) never waits for a send, and the broadcast's stats end
+     * once the last recipient is done. A send still running at its deadline is abandoned by {@link SendSlots} and gives
+     * its slot back, so a stuck recipient only delays itself.
+     * Chat, notifications and titles only build a packet and write it to the player's connection without touching the
+     * world's entity store, so they are sent from these threads; sounds read the player's position and stay on the
+     * world thread.
      */
-    private static void sendNotification(List<PlayerRef> players, AnnouncementMessage.NotificationConfig notificationConfig) {
-        if (notificationConfig == null) {
-            Logger.debug("Skipping notification: notificationConfig is null");
+    private static void sendOnVirtualThreads(List<AudienceIndex.WorldAudience> audiences, Delivery delivery,
+                                             DeliveryPacer.Broadcast pacing) {
+        long started = System.nanoTime();
+        List<PlayerRef> recipients = new ArrayList<>(count(audiences));
+        for (AudienceIndex.WorldAudience audience : audiences) {
+            for (PlayerRef player : audience.players()) {
+                if (RecipientCircuitBreaker.allow(player.getUuid())) {
+                    recipients.add(player);
+                } else {
+                    delivery.stats.recordSkipped();
+                }
+            }
+        }
+        if (recipients.isEmpty()) {
             return;
         }
 
-        // Parse title and subtitle using TinyMsg API
-        String title = notificationConfig.title();
-        String subtitle = notificationConfig.subtitle();
-        Logger.debug("Sending notification: title='" + title + "', subtitle='" + subtitle + "'");
-
-        String processedTitle = ColorUtils.convertLegacyColorCodes(title);
-        String processedSubtitle = ColorUtils.convertLegacyColorCodes(subtitle);
-
-        Message titleMessage = TinyMsg.parse(processedTitle);
-        Message subtitleMessage = processedSubtitle != null && !processedSubtitle.isEmpty()
-                ? TinyMsg.parse(processedSubtitle)
-                : Message.empty();
+        AtomicInteger remaining = new AtomicInteger(recipients.size());
+        delivery.stats.begin();
+        for (PlayerRef player : recipients) {
+            SEND_THREADS.newThread(() -> delivery.sendSlots.run(() -> sendText(player, delivery), outcome -> {
+                record(player, outcome, delivery);
+                if (remaining.decrementAndGet() == 0) {
+                    if (pacing != null) {
+                        pacing.recordLatency(System.nanoTime() - started);
+                    }
+                    delivery.stats.end();
+                }
+            })).start();
+        }
+    }
 
-        // Get icon if specified, otherwise use null (optional)
-        ItemWithAllMetadata icon = null;
-        if (notificationConfig.hasIcon()) {
+    /**
+     * Hands each world's players to that world's executor
+     * @param pacing The paced broadcast the players belong to (receives send latencies), or null
+     * @param text   Whether to send the text channels too, or only the sound
+     */
+    private static void dispatchToWorlds(List<AudienceIndex.WorldAudience> audiences, Delivery delivery,
+                                         DeliveryPacer.Broadcast pacing, boolean text) {
+        for (AudienceIndex.WorldAudience audience : audiences) {
+            World world = audience.world();
+            PlayerRef[] players = audience.players();
+            delivery.stats.begin();
+            if (world == null) {
+                // Players that are not in a (known) world still get the text channels, just not the positional sound
+                deliver(null, players, delivery, pacing, text);
+                continue;
+            }
             try {
-                icon = new ItemStack(notificationConfig.icon(), 1).toPacket();
+                world.execute(() -> deliver(world, players, delivery, pacing, text));
             } catch (Exception e) {
-                Logger.warning("Failed to create icon for notification: " + e.getMessage());
-                // Continue without icon
+                Logger.warning("Failed to dispatch announcement to world " + world.getName() + ", sending from the scheduler thread: " + e.getMessage());
+                deliver(null, players, delivery, pacing, text);
             }
         }
+    }
 
-        // Send notification to all players
-        for (PlayerRef player : players) {
-            try {
-                var packetHandler = player.getPacketHandler();
-                NotificationUtil.sendNotification(
-                        packetHandler,
-                        titleMessage,
-                        subtitleMessage,
-                        icon);
-            } catch (Exception e) {
-                Logger.warning("Failed to send notification to " + player.getUsername() + ": " + e.getMessage());
+    /**
+     * Delivers every channel of a message to each player in one pass.
+     * Runs on the world's thread when world is set; without a world the sound is skipped.
+     * The sound is played even if the text channels failed; only the circuit breaker skips both.
+     * The circuit breaker and the world's send budget are checked before each player: once sending has taken
+     * {@link #WORLD_SEND_BUDGET_NANOS}, the remaining players are handed to a new task on the world's executor, so a slow
+     * recipient does not hold the world thread for the whole broadcast. A send in progress cannot be interrupted here;
+     * only the VIRTUAL_THREADS backend abandons a send at its deadline.
+     * Ends one part of the broadcast's stats (see {@link DeliveryStats#begin()}).
+     * @param text Whether to send the text channels (chat, notification, title) or only the sound
+     */
+    private static void deliver(World world, PlayerRef[] players, Delivery delivery,
+                                DeliveryPacer.Broadcast pacing, boolean text) {
+        long started = System.nanoTime();
+        try {
+            CompiledMessage message = delivery.message;
+            EntityStore store = null;
+            if (message.hasSound()) {
+                if (world != null) {
+                    store = world.getEntityStore();
+                } else {
+                    for (int i = 0; i < players.length; i++) {
+                        delivery.stats.recordSoundFailed();
+                    }
+                    Logger.debug("Skipped sound for " + players.length + " player(s) that are not in a world");
+                }
+            }
+
+            for (int i = 0; i < players.length; i++) {
+                if (i > 0 && world != null && System.nanoTime() - started > WORLD_SEND_BUDGET_NANOS
+                        && continueLater(world, Arrays.copyOfRange(players, i, players.length), delivery, pacing, text)) {
+                    break;
+                }
+                PlayerRef player = players[i];
+                if (!RecipientCircuitBreaker.allow(player.getUuid())) {
+                    if (text) {
+                        delivery.stats.recordSkipped();
+                    }
+                    continue;
+                }
+
+                if (text) {
+                    record(player, sendText(player, delivery), delivery);
+                }
+
+                // Play sound if present; it does not depend on the text channels, only on the circuit breaker above
+                if (store != null && !playSound(player, store, message.soundIndex())) {
+                    delivery.stats.recordSoundFailed();
+                }
             }
+        } finally {
+            if (pacing != null) {
+                pacing.recordLatency(System.nanoTime() - started);
+            }
+            delivery.stats.end();
         }
     }
 
     /**
-     * Sends a title/subtitle to all players.
-     * Title and subtitle.
+     * Queues delivery to the remaining players of a world as a new task on the world's executor
+     * @return false if the world did not accept the task; the caller then keeps sending itself
      */
-    private static void sendTitle(List<PlayerRef> players, AnnouncementMessage.TitleConfig titleConfig) {
-        if (titleConfig == null) {
-            Logger.debug("Skipping title: titleConfig is null");
-            return;
+    private static boolean continueLater(World world, PlayerRef[] players, Delivery delivery,
+                                         DeliveryPacer.Broadcast pacing, boolean text) {
+        delivery.stats.begin();
+        try {
+            world.execute(() -> deliver(world, players, delivery, pacing, text));
+            return true;
+        } catch (Exception e) {
+            delivery.stats.end();
+            return false;
         }
+    }
 
-        String titleText = titleConfig.title();
-        String subtitleText = titleConfig.subtitle();
-        Logger.debug("Sending title: title='" + titleText + "', subtitle='" + subtitleText + "'");
-
-        // Parse title does not support color text.
-        Message titleMessage;
-        if (titleText != null && !titleText.isEmpty()) {
-            String processedTitle = ColorUtils.convertLegacyColorCodes(titleText);
-            String plainTitle = ColorUtils.stripColorCodes(processedTitle);
-            titleMessage = Message.raw(plainTitle);
-        } else {
-            titleMessage = Message.raw("");
+    /**
+     * Records the outcome of sending to a recipient in the stats and circuit breaker
+     */
+    private static void record(PlayerRef player, int outcome, Delivery delivery) {
+        switch (outcome) {
+            case SENT -> {
+                RecipientCircuitBreaker.recordSuccess(player.getUuid());
+                delivery.stats.recordDelivered();
+                return;
+            }
+            case TIMED_OUT -> delivery.stats.recordTimedOut();
+            case NO_SLOT -> {
+                delivery.stats.recordTimedOut();
+                return;
+            }
+            default -> delivery.stats.recordFailed();
+        }
+        if (RecipientCircuitBreaker.recordFailure(player.getUuid(), delivery.failureThreshold, delivery.cooldownNanos)) {
+            Logger.debug("Skipping announcements to " + player.getUsername() + " for "
+                    + TimeUnit.NANOSECONDS.toSeconds(delivery.cooldownNanos) + "s after repeated delivery failures");
         }
+    }
 
-        Message subtitleMessage;
-        if (subtitleText != null && !subtitleText.isEmpty()) {
-            String processedSubtitle = ColorUtils.convertLegacyColorCodes(subtitleText);
-            String plainSubtitle = ColorUtils.stripColorCodes(processedSubtitle);
-            subtitleMessage = Message.raw(plainSubtitle);
-        } else {
-            subtitleMessage = Message.raw("");
+    /**
+     * Sends the chat, notification and title channels of a message to a player.
+     * Stops at the first failure, or once the recipient's deadline has passed.
+     * @return SENT, FAILED or TIMED_OUT
+     */
+    private static int sendText(PlayerRef player, Delivery delivery) {
+        CompiledMessage message = delivery.message;
+        PlaceholderResolver placeholders = delivery.placeholders;
+        long deadline = delivery.timeoutNanos > 0 ? System.nanoTime() + delivery.timeoutNanos : 0L;
+
+        // Send chat messages if present
+        if (message.hasChatMessages()) {
+            for (MessageTemplate line : message.chatLines()) {
+                if (!sendChatMessage(player, line, placeholders)) {
+                    return FAILED;
+                }
+                if (isPast(deadline)) {
+                    return TIMED_OUT;
+                }
+            }
         }
 
-        // Send title to all players
-        // Parameters: player, title, subtitle, isMajor, icon, stay, fadeIn, fadeOut
-        for (PlayerRef player : players) {
-            try {
-                EventTitleUtil.showEventTitleToPlayer(
-                        player,
-                        titleMessage,
-                        subtitleMessage,
-                        titleConfig.isMajor(), // isMajor - adds gold border if true
-                        null, // icon
-                        titleConfig.stay(),
-                        titleConfig.fadeIn(),
-                        titleConfig.fadeOut()
-                );
-            } catch (Exception e) {
-                Logger.warning("Failed to send title to " + player.getUsername() + ": " + e.getMessage());
+        // Send notification if present
+        if (message.hasNotification()) {
+            if (!sendNotification(player, message, placeholders)) {
+                return FAILED;
             }
+            if (isPast(deadline)) {
+                return TIMED_OUT;
+            }
+        }
+
+        // Send title if present
+        if (message.hasTitle() && !sendTitle(player, message, placeholders)) {
+            return FAILED;
         }
+        return isPast(deadline) ? TIMED_OUT : SENT;
+    }
+
+    private static boolean isPast(long deadline) {
+        return deadline != 0L && System.nanoTime() - deadline > 0;
     }
 
     /**
-     * Plays a sound to all players
+     * Sends one chat line to a player.
+     * Lines are already centered and parsed by {@link MessageCompiler}, so lines without placeholders send the same
+     * Message objects to everyone; lines with placeholders only resolve their slots per player.
      */
-    private static void playSound(List<PlayerRef> players, AnnouncementMessage.SoundConfig soundConfig) {
-        if (soundConfig == null || soundConfig.soundName() == null || soundConfig.soundName().isEmpty()) {
-            return;
+    private static boolean sendChatMessage(PlayerRef player, MessageTemplate line, PlaceholderResolver placeholders) {
+        try {
+            player.sendMessage(render(line, player, placeholders));
+            return true;
+        } catch (Exception e) {
+            Logger.debug("Failed to send chat message to " + player.getUsername() + ": " + e.getMessage());
+            return false;
         }
+    }
 
-        String soundName = soundConfig.soundName();
-        float volume = soundConfig.volume();
-        float pitch = soundConfig.pitch();
+    /**
+     * Sends a notification to a player (similar to item pickup notifications)
+     */
+    private static boolean sendNotification(PlayerRef player, CompiledMessage message, PlaceholderResolver placeholders) {
+        ItemWithAllMetadata icon = message.notificationIcon();
+        try {
+            var packetHandler = player.getPacketHandler();
+            NotificationUtil.sendNotification(
+                    packetHandler,
+                    render(message.notificationTitle(), player, placeholders),
+                    render(message.notificationSubtitle(), player, placeholders),
+                    icon);
+            return true;
+        } catch (Exception e) {
+            Logger.debug("Failed to send notification to " + player.getUsername() + ": " + e.getMessage());
+            return false;
+        }
+    }
 
-        // Play sound to all players
-        // Note: Hytale API may have a specific method for playing sounds
-        for (PlayerRef player : players) {
-            try {
-                int index = SoundEvent.getAssetMap().getIndex(soundName);
-                World world = Universe.get().getWorld(player.getWorldUuid());
-                EntityStore store = world.getEntityStore();
-                Ref<EntityStore> playerRef = player.getReference();
-                world.execute(() -> {
-                    TransformComponent transform = store.getStore().getComponent(playerRef, EntityModule.get().getTransformComponentType());
-                    SoundUtil.playSoundEvent3dToPlayer(playerRef, index, SoundCategory.UI, transform.getPosition(), store.getStore());
-                });
-            } catch (Exception e) {
-                Logger.warning("Failed to play sound to " + player.getUsername() + ": " + e.getMessage());
-            }
+    /**
+     * Sends a title/subtitle to a player.
+     * Title and subtitle.
+     */
+    private static boolean sendTitle(PlayerRef player, CompiledMessage message, PlaceholderResolver placeholders) {
+        AnnouncementMessage.TitleConfig titleConfig = message.titleConfig();
+
+        // Parameters: player, title, subtitle, isMajor, icon, stay, fadeIn, fadeOut
+        try {
+            EventTitleUtil.showEventTitleToPlayer(
+                    player,
+                    render(message.title(), player, placeholders),
+                    render(message.subtitle(), player, placeholders),
+                    titleConfig.isMajor(), // isMajor - adds gold border if true
+                    null, // icon
+                    titleConfig.stay(),
+                    titleConfig.fadeIn(),
+                    titleConfig.fadeOut()
+            );
+            return true;
+        } catch (Exception e) {
+            Logger.debug("Failed to send title to " + player.getUsername() + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Plays a sound to a player. Runs on the player's world thread.
+     * @param soundIndex SoundEvent index resolved at compile time
+     */
+    private static boolean playSound(PlayerRef player, EntityStore store, int soundIndex) {
+        try {
+            Ref<EntityStore> playerRef = player.getReference();
+            TransformComponent transform = store.getStore().getComponent(playerRef, EntityModule.get().getTransformComponentType());
+            SoundUtil.playSoundEvent3dToPlayer(playerRef, soundIndex, SoundCategory.UI, transform.getPosition(), store.getStore());
+            return true;
+        } catch (Exception e) {
+            Logger.debug("Failed to play sound to " + player.getUsername() + ": " + e.getMessage());
+            return false;
         }
     }
 
+    /**
+     * Gets the message to send to a player: the shared one for static templates, otherwise the template with its
+     * placeholder slots resolved for that player
+     */
+    private static Message render(MessageTemplate template, PlayerRef player, PlaceholderResolver placeholders) {
+        if (template.isStatic()) {
+            return template.message();
+        }
+        return template.render(placeholder -> placeholders.resolve(player, placeholder));
+    }
 }
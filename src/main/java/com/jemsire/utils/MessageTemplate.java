@@ -0,0 +1,305 @@
+package com.jemsire.utils;
+
+import com.hypixel.hytale.protocol.MaybeBool;
+import com.hypixel.hytale.server.core.Message;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A compiled piece of text split into static, pre-built Message segments and placeholder slots.
+ * Templates without slots are static: {@link #message()} is sent to every player as-is.
+ * Otherwise only the slots are resolved per player and spliced between the cached segments by {@link #render}.
+ * Centered templates compute their padding from the static width plus the resolved slot widths.
+ */
+public final class MessageTemplate {
+    // Chat width centering aims at, in GlyphWidths units (80 average glyphs)
+    private static final int CHAT_LINE_WIDTH = 80 * GlyphWidths.DEFAULT;
+
+    private static final Slot[] NO_SLOTS = new Slot[0];
+
+    // segments[i] precedes slots[i], the last segment trails; a segment is null when there is no text there
+    private final Message[] segments;
+    private final Slot[] slots;
+    private final int width;
+    private final int offset;
+    private final boolean centered;
+    private final Message message;
+    // Set for templates joined from several lines; segments is null then
+    private final MessageTemplate[] lines;
+
+    /**
+     * A placeholder in the text with the style of the text around it.
+     * @param placeholder The placeholder including its delimiters (e.g. "%player_name%")
+     * @param color       Packed RGB color, or {@link ColorPalette#NONE}
+     */
+    public record Slot(String placeholder, int color, boolean bold, boolean italic,
+                       boolean underlined, boolean monospace, String link) {
+        Message toMessage(String value) {
+            Message msg = Message.raw(value);
+            if (color != ColorPalette.NONE) msg.color(ColorPalette.toHex(color));
+            if (bold) msg.bold(true);
+            if (italic) msg.italic(true);
+            if (monospace) msg.monospace(true);
+            if (underlined) msg.getFormattedMessage().underlined = MaybeBool.True;
+            if (link != null) msg.link(link);
+            return msg;
+        }
+    }
+
+    MessageTemplate(Message[] segments, Slot[] slots, int width, int offset, boolean centered) {
+        this.segments = segments;
+        this.slots = slots;
+        this.width = width;
+        this.offset = offset;
+        this.centered = centered;
+        this.message = slots.length == 0 ? pad(segments[0]) : null;
+        this.lines = null;
+    }
+
+    private MessageTemplate(MessageTemplate[] lines) {
+        List<Slot> allSlots = new ArrayList<>();
+        for (MessageTemplate line : lines) {
+            allSlots.addAll(List.of(line.slots));
+        }
+        this.segments = null;
+        this.slots = allSlots.toArray(NO_SLOTS);
+        this.width = 0;
+        this.offset = 0;
+        this.centered = false;
+        this.lines = lines;
+        this.message = slots.length == 0 ? render(null) : null;
+    }
+
+    /**
+     * Creates a static template for an already built message
+     */
+    public static MessageTemplate of(Message message) {
+        return new MessageTemplate(new Message[]{message}, NO_SLOTS, 0, 0, false);
+    }
+
+    /**
+     * Creates a template for unformatted text (e.g. titles); placeholders become unstyled slots
+     *
+     * @param text         The plain text (may be null; treated as empty)
+     * @param placeholders Whether to split out placeholders; if false the whole text is static
+     */
+    public static MessageTemplate plain(String text, boolean placeholders) {
+        String value = text != null ? text : "";
+        int start = placeholders ? findPlaceholder(value, 0) : -1;
+        if (start < 0) {
+            return of(Message.raw(value));
+        }
+
+        Builder builder = new Builder();
+        int last = 0;
+        while (start >= 0) {
+            int end = placeholderEnd(value, start);
+            if (start > last) {
+                builder.append(Message.raw(value.substring(last, start)));
+            }
+            builder.slot(new Slot(value.substring(start, end), ColorPalette.NONE, false, false, false, false, null));
+            last = end;
+            start = findPlaceholder(value, end);
+        }
+        if (last < value.length()) {
+            builder.append(Message.raw(value.substring(last)));
+        }
+        return builder.build(0, 0);
+    }
+
+    /**
+     * Joins lines into one template separated by newlines, so they can be sent as a single message.
+     * Each line keeps its own centering and offset.
+     */
+    public static MessageTemplate join(List<MessageTemplate> lines) {
+        if (lines.size() == 1) {
+            return lines.getFirst();
+        }
+        return new MessageTemplate(lines.toArray(new MessageTemplate[0]));
+    }
+
+    /**
+     * Returns this template centered in the chat line (a no-op for templates that are already centered
+     * and for joined templates, whose lines are centered individually)
+     */
+    public MessageTemplate centered() {
+        return centered || lines != null ? this : new MessageTemplate(segments, slots, width, offset, true);
+    }
+
+    /**
+     * True if the template has no placeholder slots and can be sent to everyone as {@link #message()}
+     */
+    public boolean isStatic() {
+        return slots.length == 0;
+    }
+
+    /**
+     * The pre-built message of a static template (padding included), or null if the template has slots
+     */
+    public Message message() {
+        return message;
+    }
+
+    /**
+     * Placeholder slots in text order (empty for static templates)
+     */
+    public Slot[] slots() {
+        return slots.clone();
+    }
+
+    /**
+     * Builds the message for one recipient.
+     *
+     * @param resolver Maps a slot's placeholder to its value; a null value keeps the placeholder text
+     * @return The rendered message (the cached one for static templates)
+     */
+    public Message render(Function<String, String> resolver) {
+        if (message != null) {
+            return message;
+        }
+        if (lines != null) {
+            Message root = Message.empty();
+            for (int i = 0; i < lines.length; i++) {
+                if (i > 0) {
+                    root.insert(Message.raw("\n"));
+                }
+                root.insert(lines[i].render(resolver));
+            }
+            return root;
+        }
+
+        String[] values = new String[slots.length];
+        for (int i = 0; i < slots.length; i++) {
+            String value = resolver.apply(slots[i].placeholder());
+            values[i] = value != null ? value : slots[i].placeholder();
+        }
+
+        Message root = Message.empty();
+        int spaces = padding(values);
+        if (spaces > 0) {
+            root.insert(Message.raw(" ".repeat(spaces)));
+        }
+        for (int i = 0; i < slots.length; i++) {
+            if (segments[i] != null) {
+                root.insert(segments[i]);
+            }
+            root.insert(slots[i].toMessage(values[i]));
+        }
+        if (segments[slots.length] != null) {
+            root.insert(segments[slots.length]);
+        }
+        return root;
+    }
+
+    /**
+     * Number of leading spaces for the given slot values (in slot order); 0 unless the template is centered
+     */
+    int padding(String[] values) {
+        if (!centered) {
+            return 0;
+        }
+        int totalWidth = width;
+        for (int i = 0; i < slots.length; i++) {
+            totalWidth += GlyphWidths.width(values[i], 0, values[i].length(), slots[i].bold());
+        }
+        return leadingSpaces(totalWidth);
+    }
+
+    private Message pad(Message line) {
+        int spaces = padding(new String[0]);
+        if (spaces == 0) {
+            return line;
+        }
+        return Message.empty()
+                .insert(Message.raw(" ".repeat(spaces)))
+                .insert(line);
+    }
+
+    /**
+     * Number of spaces that center a line of the given visible width, adjusted by the line's &lt;offset:N&gt;.
+     * Like the previous character-count centering, lines without visible text (e.g. only tags) are padded too.
+     */
+    private int leadingSpaces(int lineWidth) {
+        int spaces = (CHAT_LINE_WIDTH - lineWidth) / 2 / GlyphWidths.SPACE + offset;
+        return Math.max(0, spaces);
+    }
+
+    /**
+     * Finds the next placeholder (%identifier_params%: letters, digits and '_', '-', '.', ':' between two '%')
+     * @return The index of its opening '%', or -1
+     */
+    static int findPlaceholder(CharSequence text, int from) {
+        int length = text.length();
+        int start = -1;
+        for (int i = from; i < length; i++) {
+            char c = text.charAt(i);
+            if (c == '%') {
+                if (start >= 0 && i > start + 1) {
+                    return start;
+                }
+                start = i;
+            } else if (start >= 0 && !isPlaceholderChar(c)) {
+                start = -1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the index after the closing '%' of a placeholder found by {@link #findPlaceholder}
+     */
+    static int placeholderEnd(CharSequence text, int start) {
+        int i = start + 1;
+        while (text.charAt(i) != '%') {
+            i++;
+        }
+        return i + 1;
+    }
+
+    private static boolean isPlaceholderChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                || c == '_' || c == '-' || c == '.' || c == ':';
+    }
+
+    /**
+     * Collects segments and slots in text order
+     */
+    static final class Builder {
+        private final List<Message> segments = new ArrayList<>();
+        private final List<Slot> slots = new ArrayList<>();
+        private Message current;
+
+        /**
+         * Appends static content to the current segment
+         */
+        void append(Message part) {
+            if (current == null) {
+                current = Message.empty();
+            }
+            current.insert(part);
+        }
+
+        /**
+         * Closes the current segment and adds a slot after it
+         */
+        void slot(Slot slot) {
+            segments.add(current);
+            slots.add(slot);
+            current = null;
+        }
+
+        /**
+         * @param width  Visible width of the static text in {@link GlyphWidths} units
+         * @param offset Centering adjustment in spaces
+         */
+        MessageTemplate build(int width, int offset) {
+            segments.add(current);
+            if (slots.isEmpty() && current == null) {
+                segments.set(0, Message.empty());
+            }
+            return new MessageTemplate(segments.toArray(new Message[0]), slots.toArray(NO_SLOTS), width, offset, false);
+        }
+    }
+}
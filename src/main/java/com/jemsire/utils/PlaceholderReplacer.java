@@ -1,22 +1,20 @@
 package com.jemsire.utils;
 
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 public class PlaceholderReplacer {
     private PlaceholderReplacer() {
         throw new UnsupportedOperationException("Utility class");
     }
-    // Match placeholders like {player}, {message}, etc.
-    // Only matches simple identifiers (letters, numbers, underscores) to avoid matching JSON structure
-    private static final Pattern PLACEHOLDER_PATTERN = Pattern.compile("\\{([a-zA-Z0-9_]+)\\}");
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
 
     /**
-     * Replaces placeholders in a JSON string with provided values
+     * Replaces placeholders in a JSON string with provided values, in one pass over the string.
+     * Placeholders look like {player}, {message}, etc. Only simple identifiers (letters, numbers, underscores) match, to avoid matching JSON structure.
      * @param json The JSON string with placeholders like {player}, {message}, etc.
-     * @param placeholders Map of placeholder names (without braces) to their values
-     * @return JSON string with placeholders replaced
+     * @param placeholders Map of placeholder names (without braces) to their values; missing placeholders are kept as-is
+     * @return JSON string with placeholders replaced and values escaped for JSON
      */
     public static String replacePlaceholders(String json, Map<String, String> placeholders) {
         if (json == null || json.isEmpty()) {
@@ -27,49 +25,71 @@ public class PlaceholderReplacer {
             return json;
         }
 
-        StringBuilder result = new StringBuilder();
-        Matcher matcher = PLACEHOLDER_PATTERN.matcher(json);
-
-        while (matcher.find()) {
-            // matcher.group(0) is the full match including braces: "{player}"
-            // matcher.group(1) is just the content inside braces: "player"
-            String placeholder = matcher.group(1).trim(); // Trim whitespace
-            String fullMatch = matcher.group(0);
-            
-            String originalValue = placeholders.get(placeholder);
-            
-            if (originalValue == null) {
-                // Placeholder not found, keep original
-                matcher.appendReplacement(result, Matcher.quoteReplacement(fullMatch));
+        int length = json.length();
+        StringBuilder result = null;
+        int last = 0;
+        int i = json.indexOf('{');
+        while (i >= 0) {
+            int nameEnd = i + 1;
+            while (nameEnd < length && isNameChar(json.charAt(nameEnd))) {
+                nameEnd++;
+            }
+            if (nameEnd == i + 1 || nameEnd == length || json.charAt(nameEnd) != '}') {
+                i = json.indexOf('{', i + 1);
                 continue;
             }
-            
-            // Escape the replacement for JSON (escape quotes, newlines, etc.)
-            String replacement = escapeJson(originalValue);
-            
-            // Replace the entire match (including braces) with the escaped replacement
-            // Use quoteReplacement to handle any $ or \ characters in the replacement
-            matcher.appendReplacement(result, Matcher.quoteReplacement(replacement));
+            String value = placeholders.get(json.substring(i + 1, nameEnd));
+            if (value != null) {
+                if (result == null) {
+                    // Room for a few escapes before the builder has to grow
+                    result = new StringBuilder(length + value.length() + 16);
+                }
+                result.append(json, last, i);
+                appendEscaped(result, value);
+                last = nameEnd + 1;
+            }
+            // Placeholder not found: keep original
+            i = json.indexOf('{', nameEnd + 1);
+        }
+        if (result == null) {
+            return json;
         }
-        matcher.appendTail(result);
+        return result.append(json, last, length).toString();
+    }
 
-        return result.toString();
+    private static boolean isNameChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
     }
 
     /**
-     * Escapes special characters for JSON
+     * Appends a value escaped for JSON: backslash, quote, all control characters, and the line and paragraph
+     * separators (U+2028, U+2029) that JavaScript does not allow unescaped in strings
      */
-    private static String escapeJson(String str) {
-        if (str == null) {
-            return "";
+    private static void appendEscaped(StringBuilder out, String str) {
+        int last = 0;
+        for (int i = 0, length = str.length(); i < length; i++) {
+            char c = str.charAt(i);
+            String escape = switch (c) {
+                case '\\' -> "\\\\";
+                case '"' -> "\\\"";
+                case '\n' -> "\\n";
+                case '\r' -> "\\r";
+                case '\t' -> "\\t";
+                case '\b' -> "\\b";
+                case '\f' -> "\\f";
+                default -> null;
+            };
+            if (escape == null && c >= 0x20 && c != '\u2028' && c != '\u2029') {
+                continue;
+            }
+            out.append(str, last, i);
+            if (escape != null) {
+                out.append(escape);
+            } else {
+                out.append("\\u").append(HEX[c >> 12]).append(HEX[(c >> 8) & 0xF]).append(HEX[(c >> 4) & 0xF]).append(HEX[c & 0xF]);
+            }
+            last = i + 1;
         }
-        return str
-                .replace("\\", "\\\\")
-                .replace("\"", "\\\"")
-                .replace("\n", "\\n")
-                .replace("\r", "\\r")
-                .replace("\t", "\\t")
-                .replace("\b", "\\b")
-                .replace("\f", "\\f");
+        out.append(str, last, str.length());
     }
 }
@@ -0,0 +1,127 @@
+package com.jemsire.utils;
+
+import com.hypixel.hytale.server.core.universe.PlayerRef;
+import com.jemsire.jemplaceholders.api.JemPlaceholdersAPI;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves placeholders for one broadcast through JemPlaceholders.
+ * Global placeholders (those starting with a configured prefix, e.g. "jemannouncements_" or "server_") are resolved
+ * once per broadcast and shared by all recipients; all others are resolved once per player per broadcast, no matter
+ * how many times they appear in chat, notification and title.
+ */
+public final class PlaceholderResolver {
+    static final String[] DEFAULT_GLOBAL_PREFIXES = {"jemannouncements_", "server_"};
+
+    private static volatile String[] globalPrefixes = DEFAULT_GLOBAL_PREFIXES;
+    // Globals that did not resolve without a player; these are resolved against the first recipient instead
+    private static final Set<String> NEEDS_PLAYER = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Looks up the value of one placeholder; returns the placeholder itself if it could not be resolved
+     */
+    @FunctionalInterface
+    interface Lookup {
+        String lookup(PlayerRef player, String placeholder);
+    }
+
+    private final Lookup lookup;
+    private final Map<String, String> globals = new ConcurrentHashMap<>();
+    private final Map<UUID, Map<String, String>> perPlayer = new ConcurrentHashMap<>();
+
+    public PlaceholderResolver() {
+        this(PlaceholderResolver::lookup);
+    }
+
+    PlaceholderResolver(Lookup lookup) {
+        this.lookup = lookup;
+    }
+
+    /**
+     * Sets the identifier prefixes of global placeholders (without '%', case-insensitive). Null or empty = none.
+     */
+    public static void setGlobalPrefixes(String[] prefixes) {
+        NEEDS_PLAYER.clear();
+        if (prefixes == null) {
+            globalPrefixes = new String[0];
+            return;
+        }
+        String[] normalized = new String[prefixes.length];
+        int count = 0;
+        for (String prefix : prefixes) {
+            if (prefix != null && !prefix.isBlank()) {
+                normalized[count++] = prefix.trim().toLowerCase(Locale.ROOT);
+            }
+        }
+        globalPrefixes = Arrays.copyOf(normalized, count);
+    }
+
+    /**
+     * Checks whether a placeholder (including its '%' delimiters) is global
+     */
+    public static boolean isGlobal(String placeholder) {
+        for (String prefix : globalPrefixes) {
+            if (placeholder.regionMatches(true, 1, prefix, 0, prefix.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Resolves a placeholder for a player, from this broadcast's cache if it was resolved before
+     *
+     * @param player      The recipient
+     * @param placeholder The placeholder including its '%' delimiters
+     * @return The value, or the placeholder itself if it could not be resolved
+     */
+    public String resolve(PlayerRef player, String placeholder) {
+        return resolve(player.getUuid(), player, placeholder);
+    }
+
+    String resolve(UUID playerId, PlayerRef player, String placeholder) {
+        if (isGlobal(placeholder)) {
+            return globals.computeIfAbsent(placeholder, key -> resolveGlobal(player, key));
+        }
+        Map<String, String> cache = perPlayer.computeIfAbsent(playerId, uuid -> new HashMap<>());
+        String value = cache.get(placeholder);
+        if (value == null) {
+            value = lookup.lookup(player, placeholder);
+            cache.put(placeholder, value);
+        }
+        return value;
+    }
+
+    /**
+     * Resolves a global placeholder without a player. Expansions that need one anyway get the first recipient that
+     * asks for it, and are not tried without a player again until the next reload.
+     */
+    private String resolveGlobal(PlayerRef player, String placeholder) {
+        if (!NEEDS_PLAYER.contains(placeholder)) {
+            String value = lookup.lookup(null, placeholder);
+            if (!placeholder.equals(value)) {
+                return value;
+            }
+            NEEDS_PLAYER.add(placeholder);
+        }
+        return lookup.lookup(player, placeholder);
+    }
+
+    private static String lookup(PlayerRef player, String placeholder) {
+        try {
+            String value = JemPlaceholdersAPI.setPlaceholders(player, placeholder);
+            return value != null ? value : placeholder;
+        } catch (Exception | LinkageError e) {
+            Logger.debug("Failed to resolve " + placeholder + " for " + (player != null ? player.getUsername() : "the server")
+                    + ": " + e.getMessage());
+            return placeholder;
+        }
+    }
+}
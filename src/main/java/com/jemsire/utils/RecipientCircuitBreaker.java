@@ -0,0 +1,110 @@
+package com.jemsire.utils;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-player circuit breaker for announcement delivery.
+ * After a number of consecutive failed (or timed out) deliveries a player is skipped until a cool-down has passed;
+ * the next delivery after that is a trial: success closes the breaker, failure opens it again right away.
+ */
+public final class RecipientCircuitBreaker {
+    private RecipientCircuitBreaker() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    // Above this many tracked players, stale entries are pruned on the next failure
+    private static final int PRUNE_THRESHOLD = 1024;
+
+    private static final Map<UUID, State> STATES = new ConcurrentHashMap<>();
+
+    private static final class State {
+        int consecutiveFailures;
+        long openUntil; // System.nanoTime() deadline; only meaningful once tripped
+        boolean tripped;
+    }
+
+    /**
+     * Checks whether a player should be delivered to (the breaker is closed or the cool-down has passed)
+     */
+    public static boolean allow(UUID player) {
+        if (player == null) {
+            return true;
+        }
+        State state = STATES.get(player);
+        if (state == null) {
+            return true;
+        }
+        synchronized (state) {
+            return !state.tripped || System.nanoTime() - state.openUntil >= 0;
+        }
+    }
+
+    /**
+     * Records a successful delivery, closing the breaker
+     */
+    public static void recordSuccess(UUID player) {
+        if (player != null && !STATES.isEmpty()) {
+            STATES.remove(player);
+        }
+    }
+
+    /**
+     * Records a failed delivery; opens the breaker once the player has failed 'threshold' times in a row
+     *
+     * @param threshold     Consecutive failures that open the breaker (at least 1)
+     * @param cooldownNanos How long the player is skipped once the breaker is open
+     * @return True if this failure opened the breaker
+     */
+    public static boolean recordFailure(UUID player, int threshold, long cooldownNanos) {
+        if (player == null) {
+            return false;
+        }
+        if (STATES.size() > PRUNE_THRESHOLD) {
+            prune();
+        }
+        State state = STATES.computeIfAbsent(player, uuid -> new State());
+        synchronized (state) {
+            state.consecutiveFailures++;
+            if (state.consecutiveFailures >= Math.max(1, threshold)) {
+                state.tripped = true;
+                state.openUntil = System.nanoTime() + cooldownNanos;
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Forgets a player (e.g. on disconnect)
+     */
+    public static void forget(UUID player) {
+        if (player != null) {
+            STATES.remove(player);
+        }
+    }
+
+    /**
+     * Gets the number of players currently being skipped
+     */
+    public static int openCount() {
+        int open = 0;
+        for (UUID player : STATES.keySet()) {
+            if (!allow(player)) {
+                open++;
+            }
+        }
+        return open;
+    }
+
+    // Drops entries whose cool-down has passed; a player that fails again simply starts counting anew
+    private static void prune() {
+        long now = System.nanoTime();
+        STATES.values().removeIf(state -> {
+            synchronized (state) {
+                return !state.tripped || now - state.openUntil >= 0;
+            }
+        });
+    }
+}
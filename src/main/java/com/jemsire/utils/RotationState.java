@@ -0,0 +1,392 @@
+package com.jemsire.utils;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Rotation state kept in a small memory-mapped file in the plugin data directory, so a restart continues the rotation
+ * instead of starting again at the first message. Every pick updates its fields in place; nothing is serialized.
+ * <p>
+ * Layout (fixed; the arrays grow by rewriting the file with a larger capacity):
+ * <pre>
+ *  0  int  magic            20 int  bag size          40 long bag fingerprint
+ *  4  int  version          24 int  bag position      48 long round-robin fingerprint
+ *  8  int  capacity (C)     28 int  bag last index    56 int  round-robin size
+ * 12  int  time slots (T)   32 long random state      60 int  (unused)
+ * 16  int  sequential index
+ * 64       int[C] shuffle bag order, int[C] round-robin current weights,
+ *          T x (long name hash, long last-fired epoch millis) open-addressed table
+ * </pre>
+ * If the file cannot be mapped, the rotation simply is not persisted.
+ */
+public final class RotationState {
+    private RotationState() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    private static final int MAGIC = 0x4A415253; // "JARS"
+    private static final int VERSION = 1;
+
+    private static final int OFF_MAGIC = 0;
+    private static final int OFF_VERSION = 4;
+    private static final int OFF_CAPACITY = 8;
+    private static final int OFF_TIME_SLOTS = 12;
+    private static final int OFF_SEQUENTIAL = 16;
+    private static final int OFF_BAG_SIZE = 20;
+    private static final int OFF_BAG_POSITION = 24;
+    private static final int OFF_BAG_LAST = 28;
+    private static final int OFF_RANDOM = 32;
+    private static final int OFF_BAG_FINGERPRINT = 40;
+    private static final int OFF_ROUND_ROBIN_FINGERPRINT = 48;
+    private static final int OFF_ROUND_ROBIN_SIZE = 56;
+    private static final int HEADER_SIZE = 64;
+
+    private static final int MIN_CAPACITY = 64;
+    private static final int MIN_TIME_SLOTS = 256;
+
+    private static Path file;
+    private static MappedByteBuffer buffer;
+    private static int capacity;
+    private static int timeSlots;
+    private static int usedTimeSlots;
+
+    /**
+     * Saved state read back at startup
+     *
+     * @param randomState 0 if no random pick was saved
+     * @param bagOrder    Empty if no shuffle bag was saved
+     * @param roundRobin  Empty if no round-robin state was saved
+     */
+    public record Snapshot(int sequentialIndex, long randomState,
+                           long bagFingerprint, int[] bagOrder, int bagPosition, int bagLast,
+                           long roundRobinFingerprint, int[] roundRobin) {}
+
+    /**
+     * Maps the state file, creating it if it does not exist or is not valid
+     *
+     * @return False if the file could not be mapped (state is then not persisted)
+     */
+    public static synchronized boolean open(Path path) {
+        close();
+        file = path;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = channel.size();
+            if (size >= HEADER_SIZE) {
+                MappedByteBuffer existing = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+                int fileCapacity = existing.getInt(OFF_CAPACITY);
+                int fileTimeSlots = existing.getInt(OFF_TIME_SLOTS);
+                if (existing.getInt(OFF_MAGIC) == MAGIC && existing.getInt(OFF_VERSION) == VERSION
+                        && fileCapacity >= MIN_CAPACITY && fileTimeSlots >= MIN_TIME_SLOTS && Integer.bitCount(fileTimeSlots) == 1
+                        && size >= fileSize(fileCapacity, fileTimeSlots)) {
+                    buffer = existing;
+                    capacity = fileCapacity;
+                    timeSlots = fileTimeSlots;
+                    usedTimeSlots = countUsedTimeSlots();
+                    Logger.debug("Restored rotation state from " + path.getFileName());
+                    return true;
+                }
+                Logger.warning("Rotation state file " + path.getFileName() + " is not valid, starting a new one");
+            }
+            create(channel, MIN_CAPACITY, MIN_TIME_SLOTS);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            Logger.warning("Could not open rotation state file, rotation will restart on every start: " + e.getMessage());
+            buffer = null;
+            return false;
+        }
+    }
+
+    /**
+     * Flushes the state to disk and unmaps the file
+     */
+    public static synchronized void close() {
+        if (buffer != null) {
+            try {
+                buffer.force();
+            } catch (RuntimeException e) {
+                Logger.debug("Could not flush rotation state: " + e.getMessage());
+            }
+            buffer = null;
+        }
+    }
+
+    /**
+     * Reads the saved rotation state, or null if there is none
+     */
+    public static synchronized Snapshot snapshot() {
+        if (buffer == null) {
+            return null;
+        }
+        int bagSize = Math.min(buffer.getInt(OFF_BAG_SIZE), capacity);
+        int roundRobinSize = Math.min(buffer.getInt(OFF_ROUND_ROBIN_SIZE), capacity);
+        return new Snapshot(
+                buffer.getInt(OFF_SEQUENTIAL),
+                buffer.getLong(OFF_RANDOM),
+                buffer.getLong(OFF_BAG_FINGERPRINT),
+                readInts(bagOffset(), Math.max(0, bagSize)),
+                buffer.getInt(OFF_BAG_POSITION),
+                buffer.getInt(OFF_BAG_LAST),
+                buffer.getLong(OFF_ROUND_ROBIN_FINGERPRINT),
+                readInts(roundRobinOffset(), Math.max(0, roundRobinSize)));
+    }
+
+    public static synchronized void writeSequentialIndex(int index) {
+        if (buffer != null) {
+            buffer.putInt(OFF_SEQUENTIAL, index);
+        }
+    }
+
+    public static synchronized void writeRandom(long state) {
+        if (buffer != null) {
+            buffer.putLong(OFF_RANDOM, state);
+        }
+    }
+
+    /**
+     * Saves the shuffle bag. The order is only rewritten after a reshuffle (or for a different bag), otherwise just the position.
+     */
+    public static synchronized void writeShuffleBag(long fingerprint, int[] order, int position, int last) {
+        if (buffer == null || !ensureCapacity(order.length)) {
+            return;
+        }
+        if (position <= 1 || buffer.getLong(OFF_BAG_FINGERPRINT) != fingerprint || buffer.getInt(OFF_BAG_SIZE) != order.length) {
+            writeInts(bagOffset(), order);
+            buffer.putInt(OFF_BAG_SIZE, order.length);
+            buffer.putLong(OFF_BAG_FINGERPRINT, fingerprint);
+        }
+        buffer.putInt(OFF_BAG_POSITION, position);
+        buffer.putInt(OFF_BAG_LAST, last);
+    }
+
+    /**
+     * Saves the smooth weighted round-robin current weights
+     */
+    public static synchronized void writeRoundRobin(long fingerprint, int[] current) {
+        if (buffer == null || !ensureCapacity(current.length)) {
+            return;
+        }
+        writeInts(roundRobinOffset(), current);
+        buffer.putInt(OFF_ROUND_ROBIN_SIZE, current.length);
+        buffer.putLong(OFF_ROUND_ROBIN_FINGERPRINT, fingerprint);
+    }
+
+    /**
+     * Gets when something (a message name, or another key) was last sent, in epoch millis; 0 if unknown
+     */
+    public static synchronized long lastFired(String name) {
+        if (buffer == null) {
+            return 0L;
+        }
+        int slot = findSlot(key(name));
+        return slot >= 0 && buffer.getLong(timeOffset(slot)) != 0 ? buffer.getLong(timeOffset(slot) + 8) : 0L;
+    }
+
+    /**
+     * Records when something (a message name, or another key) was sent, in epoch millis
+     */
+    public static synchronized void writeLastFired(String name, long millis) {
+        if (buffer == null) {
+            return;
+        }
+        long key = key(name);
+        int slot = findSlot(key);
+        if (slot < 0 || buffer.getLong(timeOffset(slot)) == 0) {
+            // New entry; keep the table at most half full
+            if ((usedTimeSlots + 1) * 2 > timeSlots && !resize(capacity, timeSlots * 2)) {
+                return;
+            }
+            slot = findSlot(key);
+            buffer.putLong(timeOffset(slot), key);
+            usedTimeSlots++;
+        }
+        buffer.putLong(timeOffset(slot) + 8, millis);
+    }
+
+    /**
+     * Drops the last-send times of every key that is not in the given ones (renamed or removed messages),
+     * rebuilding the table in place so its probe chains stay intact
+     */
+    public static synchronized void retainLastFired(Collection<String> names) {
+        if (buffer == null) {
+            return;
+        }
+        Set<Long> kept = new HashSet<>();
+        for (String name : names) {
+            kept.add(key(name));
+        }
+        long[] keys = new long[timeSlots];
+        long[] times = new long[timeSlots];
+        int dropped = 0;
+        for (int slot = 0; slot < timeSlots; slot++) {
+            long key = buffer.getLong(timeOffset(slot));
+            if (key != 0 && !kept.contains(key)) {
+                dropped++;
+            } else {
+                keys[slot] = key;
+                times[slot] = buffer.getLong(timeOffset(slot) + 8);
+            }
+        }
+        if (dropped == 0) {
+            return;
+        }
+
+        for (int slot = 0; slot < timeSlots; slot++) {
+            buffer.putLong(timeOffset(slot), 0L);
+            buffer.putLong(timeOffset(slot) + 8, 0L);
+        }
+        usedTimeSlots = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                int slot = findSlot(keys[i]);
+                buffer.putLong(timeOffset(slot), keys[i]);
+                buffer.putLong(timeOffset(slot) + 8, times[i]);
+                usedTimeSlots++;
+            }
+        }
+        Logger.debug("Dropped the last send time of " + dropped + " removed message(s)");
+    }
+
+    private static boolean ensureCapacity(int size) {
+        if (size <= capacity) {
+            return true;
+        }
+        int newCapacity = capacity;
+        while (newCapacity < size) {
+            newCapacity *= 2;
+        }
+        return resize(newCapacity, timeSlots);
+    }
+
+    /**
+     * Rewrites the file with a larger layout, keeping its contents. The file only ever grows.
+     */
+    private static boolean resize(int newCapacity, int newTimeSlots) {
+        Snapshot state = snapshot();
+        long[] keys = new long[timeSlots];
+        long[] times = new long[timeSlots];
+        for (int slot = 0; slot < timeSlots; slot++) {
+            keys[slot] = buffer.getLong(timeOffset(slot));
+            times[slot] = buffer.getLong(timeOffset(slot) + 8);
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            create(channel, newCapacity, newTimeSlots);
+        } catch (IOException | RuntimeException e) {
+            Logger.warning("Could not grow rotation state file, rotation will no longer be saved: " + e.getMessage());
+            buffer = null;
+            return false;
+        }
+
+        buffer.putInt(OFF_SEQUENTIAL, state.sequentialIndex());
+        buffer.putLong(OFF_RANDOM, state.randomState());
+        writeInts(bagOffset(), state.bagOrder());
+        buffer.putInt(OFF_BAG_SIZE, state.bagOrder().length);
+        buffer.putInt(OFF_BAG_POSITION, state.bagPosition());
+        buffer.putInt(OFF_BAG_LAST, state.bagLast());
+        buffer.putLong(OFF_BAG_FINGERPRINT, state.bagFingerprint());
+        writeInts(roundRobinOffset(), state.roundRobin());
+        buffer.putInt(OFF_ROUND_ROBIN_SIZE, state.roundRobin().length);
+        buffer.putLong(OFF_ROUND_ROBIN_FINGERPRINT, state.roundRobinFingerprint());
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                int slot = findSlot(keys[i]);
+                buffer.putLong(timeOffset(slot), keys[i]);
+                buffer.putLong(timeOffset(slot) + 8, times[i]);
+                usedTimeSlots++;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Maps the file with the given layout and clears it
+     */
+    private static void create(FileChannel channel, int newCapacity, int newTimeSlots) throws IOException {
+        long size = fileSize(newCapacity, newTimeSlots);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        for (int offset = 0; offset < size; offset += 8) {
+            buffer.putLong(offset, 0L);
+        }
+        capacity = newCapacity;
+        timeSlots = newTimeSlots;
+        usedTimeSlots = 0;
+        buffer.putInt(OFF_MAGIC, MAGIC);
+        buffer.putInt(OFF_VERSION, VERSION);
+        buffer.putInt(OFF_CAPACITY, newCapacity);
+        buffer.putInt(OFF_TIME_SLOTS, newTimeSlots);
+        buffer.putInt(OFF_BAG_LAST, -1);
+    }
+
+    private static long fileSize(int capacity, int timeSlots) {
+        return HEADER_SIZE + 8L * capacity + 16L * timeSlots;
+    }
+
+    private static int bagOffset() {
+        return HEADER_SIZE;
+    }
+
+    private static int roundRobinOffset() {
+        return HEADER_SIZE + 4 * capacity;
+    }
+
+    private static int timeOffset(int slot) {
+        return HEADER_SIZE + 8 * capacity + 16 * slot;
+    }
+
+    /**
+     * Finds the slot holding a key, or the empty slot where it would go (-1 if the table is full)
+     */
+    private static int findSlot(long key) {
+        int mask = timeSlots - 1;
+        int slot = (int) (key ^ (key >>> 32)) & mask;
+        for (int probe = 0; probe < timeSlots; probe++) {
+            long stored = buffer.getLong(timeOffset(slot));
+            if (stored == key || stored == 0) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private static int countUsedTimeSlots() {
+        int used = 0;
+        for (int slot = 0; slot < timeSlots; slot++) {
+            if (buffer.getLong(timeOffset(slot)) != 0) {
+                used++;
+            }
+        }
+        return used;
+    }
+
+    /**
+     * FNV-1a hash of a name; never 0, which marks an empty slot
+     */
+    private static long key(String name) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < name.length(); i++) {
+            hash = (hash ^ name.charAt(i)) * 0x100000001b3L;
+        }
+        return hash != 0 ? hash : 1L;
+    }
+
+    private static int[] readInts(int offset, int count) {
+        int[] values = new int[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = buffer.getInt(offset + 4 * i);
+        }
+        return values;
+    }
+
+    private static void writeInts(int offset, int[] values) {
+        for (int i = 0; i < values.length; i++) {
+            buffer.putInt(offset + 4 * i, values[i]);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.jemsire.utils;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntConsumer;
+import java.util.function.IntSupplier;
+
+/**
+ * The send slots of one VIRTUAL_THREADS broadcast: at most MaxConcurrentSends recipients are sent to at the same time.
+ * Each send runs on its recipient's own thread. At the send's deadline a watchdog gives the slot back, reports the send
+ * as timed out and interrupts it, so a stuck recipient only delays itself. Abandoned sends are tracked until they return.
+ */
+final class SendSlots {
+    // Longest a recipient waits for a slot when sends have no deadline, since a stuck send then never gives its slot back
+    static final long MAX_SLOT_WAIT_NANOS = TimeUnit.SECONDS.toNanos(60);
+
+    // Threads whose send passed its deadline and has not returned yet
+    private static final Set<Thread> ABANDONED = ConcurrentHashMap.newKeySet();
+
+    private static ScheduledThreadPoolExecutor watchdog;
+
+    private final Semaphore slots;
+    private final long timeoutNanos;
+
+    /**
+     * @param slots        Number of sends that may run at the same time
+     * @param timeoutNanos Deadline of each send, 0 = no deadline
+     */
+    SendSlots(int slots, long timeoutNanos) {
+        this.slots = new Semaphore(Math.max(1, slots), true);
+        this.timeoutNanos = timeoutNanos;
+    }
+
+    /**
+     * Runs one recipient's send on the calling thread once a slot is free, and reports its outcome exactly once:
+     * the send's own, {@link MessageSender#TIMED_OUT} from the watchdog if the deadline passes first, or
+     * {@link MessageSender#NO_SLOT} if no slot freed up in time. With a deadline every slot frees up within it, so the
+     * wait for a slot is not bounded separately.
+     *
+     * @param send      Sends to the recipient and returns the outcome
+     * @param onOutcome Receives the outcome, on the calling thread or the watchdog thread
+     */
+    void run(IntSupplier send, IntConsumer onOutcome) {
+        try {
+            boolean acquired;
+            if (timeoutNanos > 0) {
+                slots.acquire();
+                acquired = true;
+            } else {
+                acquired = slots.tryAcquire(MAX_SLOT_WAIT_NANOS, TimeUnit.NANOSECONDS);
+            }
+            if (!acquired) {
+                onOutcome.accept(MessageSender.NO_SLOT);
+                return;
+            }
+        } catch (InterruptedException e) {
+            onOutcome.accept(MessageSender.NO_SLOT);
+            return;
+        }
+
+        Thread thread = Thread.currentThread();
+        AtomicBoolean reported = new AtomicBoolean();
+        ScheduledFuture<?> watch = timeoutNanos > 0
+                ? watchdog().schedule(() -> abandon(thread, reported, onOutcome), timeoutNanos, TimeUnit.NANOSECONDS)
+                : null;
+
+        int outcome = MessageSender.FAILED;
+        try {
+            outcome = send.getAsInt();
+        } catch (RuntimeException e) {
+            Logger.debug("Announcement send failed: " + e.getMessage());
+        }
+
+        if (reported.compareAndSet(false, true)) {
+            if (watch != null) {
+                watch.cancel(false);
+            }
+            slots.release();
+            onOutcome.accept(outcome);
+        } else {
+            // The watchdog already reported this send as timed out and gave its slot back
+            ABANDONED.remove(thread);
+            Thread.interrupted();
+        }
+    }
+
+    /**
+     * Called by the watchdog at a send's deadline
+     */
+    private void abandon(Thread thread, AtomicBoolean reported, IntConsumer onOutcome) {
+        // Tracked before the send can see it was abandoned, so its removal never comes first
+        ABANDONED.add(thread);
+        if (!reported.compareAndSet(false, true)) {
+            ABANDONED.remove(thread);
+            return;
+        }
+        slots.release();
+        thread.interrupt();
+        Logger.debug("Abandoned an announcement send at its deadline (" + ABANDONED.size() + " still running)");
+        onOutcome.accept(MessageSender.TIMED_OUT);
+    }
+
+    /**
+     * Gets the number of sends that passed their deadline and have not returned yet
+     */
+    static int abandonedCount() {
+        return ABANDONED.size();
+    }
+
+    /**
+     * Stops the watchdog and interrupts abandoned sends that are still running
+     */
+    static synchronized void shutdown() {
+        if (watchdog != null) {
+            watchdog.shutdownNow();
+            watchdog = null;
+        }
+        if (!ABANDONED.isEmpty()) {
+            Logger.warning(ABANDONED.size() + " abandoned announcement send(s) still running at shutdown");
+            for (Thread thread : ABANDONED) {
+                thread.interrupt();
+            }
+        }
+    }
+
+    private static synchronized ScheduledThreadPoolExecutor watchdog() {
+        if (watchdog == null) {
+            watchdog = new ScheduledThreadPoolExecutor(1, r -> {
+                Thread thread = new Thread(r);
+                thread.setName("AnnouncementSendWatchdog");
+                thread.setDaemon(true);
+                return thread;
+            });
+            // Most sends finish long before their deadline; drop their watches instead of keeping them queued
+            watchdog.setRemoveOnCancelPolicy(true);
+        }
+        return watchdog;
+    }
+}
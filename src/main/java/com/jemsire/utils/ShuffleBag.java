@@ -0,0 +1,106 @@
+package com.jemsire.utils;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Shuffle-bag order: every index is drawn once per round, in a fresh random order each round.
+ * The bag is reshuffled in place when it runs out, and a round never starts with the index that ended the previous one,
+ * so the same message is never shown twice in a row. Drawing does not allocate.
+ */
+public final class ShuffleBag {
+    private int[] order = new int[0];
+    private int position = 0;
+    private int last = -1; // Index drawn most recently, -1 if none
+    private long fingerprint;
+
+    /**
+     * Draws the next index
+     *
+     * @param size        Number of indices to draw from
+     * @param fingerprint Identifies the set the indices refer to; a different value starts a new bag
+     * @return The index, or -1 if size is 0
+     */
+    public int next(int size, long fingerprint, RandomGenerator random) {
+        if (size <= 0) {
+            return -1;
+        }
+        if (order.length != size || this.fingerprint != fingerprint) {
+            reset(size, fingerprint);
+        }
+        if (position >= order.length) {
+            reshuffle(random);
+        }
+        last = order[position++];
+        return last;
+    }
+
+    /**
+     * Restores a saved bag (see {@link RotationState}); ignored unless order is a permutation of 0..n-1
+     */
+    public void restore(int[] order, int position, int last, long fingerprint) {
+        boolean[] seen = new boolean[order.length];
+        for (int index : order) {
+            if (index < 0 || index >= order.length || seen[index]) {
+                return;
+            }
+            seen[index] = true;
+        }
+        if (position < 0 || position > order.length || last < -1 || last >= order.length) {
+            return;
+        }
+        this.order = order.clone();
+        this.position = position;
+        this.last = last;
+        this.fingerprint = fingerprint;
+    }
+
+    /**
+     * The current round's order; must not be modified
+     */
+    public int[] order() {
+        return order;
+    }
+
+    /**
+     * Number of indices drawn from the current round
+     */
+    public int position() {
+        return position;
+    }
+
+    public int last() {
+        return last;
+    }
+
+    public long fingerprint() {
+        return fingerprint;
+    }
+
+    private void reset(int size, long fingerprint) {
+        order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        position = size; // Shuffle on the first draw
+        last = -1;
+        this.fingerprint = fingerprint;
+    }
+
+    /**
+     * Fisher-Yates shuffle in place, then moves the previous round's last index away from the front
+     */
+    private void reshuffle(RandomGenerator random) {
+        for (int i = order.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = order[i];
+            order[i] = order[j];
+            order[j] = swap;
+        }
+        if (order.length > 1 && order[0] == last) {
+            int j = 1 + random.nextInt(order.length - 1);
+            order[0] = order[j];
+            order[j] = last;
+        }
+        position = 0;
+    }
+}
@@ -0,0 +1,68 @@
+package com.jemsire.utils;
+
+import java.util.Arrays;
+
+/**
+ * Smooth weighted round-robin (as in nginx): over each cycle of total-weight picks, every index is picked exactly
+ * as often as its weight, with the picks of heavy indices spread evenly between the others instead of bunched together.
+ * For weights 5, 1, 1 one cycle is A A B A C A A. Fully deterministic; a pick is O(n) and does not allocate.
+ */
+public final class SmoothWeightedRoundRobin {
+    private int[] weights = new int[0];
+    private int[] current = new int[0];
+    private int total = 0;
+    private long fingerprint;
+
+    /**
+     * Picks the next index
+     *
+     * @param weights     Weight per index (at least 1 each); not modified
+     * @param fingerprint Identifies the set the indices refer to; a different value (or different weights) starts over
+     * @return The index, or -1 if there are no weights
+     */
+    public int next(int[] weights, long fingerprint) {
+        if (weights.length == 0) {
+            return -1;
+        }
+        if (this.fingerprint != fingerprint || !Arrays.equals(this.weights, weights)) {
+            reset(weights, fingerprint);
+        }
+        int best = 0;
+        for (int i = 0; i < current.length; i++) {
+            current[i] += this.weights[i];
+            if (current[i] > current[best]) {
+                best = i;
+            }
+        }
+        current[best] -= total;
+        return best;
+    }
+
+    /**
+     * Restores saved current weights (see {@link RotationState}) for the given weights; ignored if the sizes differ
+     */
+    public void restore(int[] weights, int[] current, long fingerprint) {
+        if (weights.length != current.length) {
+            return;
+        }
+        reset(weights, fingerprint);
+        System.arraycopy(current, 0, this.current, 0, current.length);
+    }
+
+    /**
+     * The current weights; must not be modified
+     */
+    public int[] current() {
+        return current;
+    }
+
+    private void reset(int[] weights, long fingerprint) {
+        this.weights = weights.clone();
+        this.current = new int[weights.length];
+        this.total = 0;
+        for (int weight : this.weights) {
+            total += weight;
+        }
+        this.fingerprint = fingerprint;
+    }
+}
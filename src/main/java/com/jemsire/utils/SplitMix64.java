@@ -0,0 +1,34 @@
+package com.jemsire.utils;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * SplitMix64 random generator. Its whole state is one long, so the random rotation can be saved and continued
+ * exactly where it left off (see {@link RotationState}). Not thread-safe.
+ */
+public final class SplitMix64 implements RandomGenerator {
+    private long state;
+
+    public SplitMix64(long seed) {
+        this.state = seed;
+    }
+
+    public SplitMix64() {
+        this(System.nanoTime() ^ Double.doubleToLongBits(Math.random()));
+    }
+
+    @Override
+    public long nextLong() {
+        long z = (state += 0x9E3779B97F4A7C15L);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Gets the current state; a generator created with it continues the same sequence
+     */
+    public long state() {
+        return state;
+    }
+}
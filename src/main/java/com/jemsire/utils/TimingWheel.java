@@ -0,0 +1,162 @@
+package com.jemsire.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hashed timing wheel: timers are kept in a ring of slots by deadline, and each tick only visits one slot.
+ * Scheduling and cancelling are O(1); a tick costs O(timers in the slot), independent of the total number of timers.
+ * Timers further away than one turn of the wheel wait in their slot for the remaining number of turns.
+ * Driven by the scheduler thread calling {@link #tick()} once per tick; tasks run on that thread.
+ */
+public final class TimingWheel {
+    /**
+     * A scheduled task
+     */
+    public static final class Timer {
+        private final Runnable task;
+        private long deadline; // Tick at which the task runs
+        private int rounds; // Remaining turns of the wheel before the deadline is in the current turn
+        private Timer prev;
+        private Timer next;
+        private boolean scheduled;
+
+        private Timer(Runnable task) {
+            this.task = task;
+        }
+
+        /**
+         * Tick at which the task runs
+         */
+        public long deadline() {
+            return deadline;
+        }
+    }
+
+    private final Timer[] slots; // First timer of each slot
+    private final Timer[] tails; // Last timer of each slot
+    private final int mask;
+    private final List<Timer> due = new ArrayList<>();
+    private long currentTick = 0;
+    private int size = 0;
+
+    /**
+     * @param slotCount Number of slots; rounded up to a power of two
+     */
+    public TimingWheel(int slotCount) {
+        int count = slotCount <= 2 ? 2 : Integer.highestOneBit(slotCount - 1) << 1;
+        this.slots = new Timer[count];
+        this.tails = new Timer[count];
+        this.mask = count - 1;
+    }
+
+    /**
+     * Schedules a task
+     *
+     * @param delayTicks Ticks from now; values below 1 run the task on the next tick
+     */
+    public synchronized Timer schedule(long delayTicks, Runnable task) {
+        Timer timer = new Timer(task);
+        insert(timer, currentTick + Math.max(1, delayTicks));
+        return timer;
+    }
+
+    /**
+     * Cancels a timer; does nothing if it has already run or was cancelled
+     */
+    public synchronized void cancel(Timer timer) {
+        if (timer == null || !timer.scheduled) {
+            return;
+        }
+        int slot = (int) (timer.deadline & mask);
+        if (timer.prev != null) {
+            timer.prev.next = timer.next;
+        } else {
+            slots[slot] = timer.next;
+        }
+        if (timer.next != null) {
+            timer.next.prev = timer.prev;
+        } else {
+            tails[slot] = timer.prev;
+        }
+        timer.prev = null;
+        timer.next = null;
+        timer.scheduled = false;
+        size--;
+    }
+
+    /**
+     * Removes every timer
+     */
+    public synchronized void clear() {
+        for (int i = 0; i < slots.length; i++) {
+            for (Timer timer = slots[i]; timer != null; timer = timer.next) {
+                timer.scheduled = false;
+            }
+            slots[i] = null;
+            tails[i] = null;
+        }
+        size = 0;
+    }
+
+    /**
+     * Advances the wheel by one tick and runs the tasks that are due, in scheduling order
+     */
+    public void tick() {
+        synchronized (this) {
+            currentTick++;
+            int slot = (int) (currentTick & mask);
+            Timer timer = slots[slot];
+            while (timer != null) {
+                Timer next = timer.next;
+                if (timer.rounds > 0) {
+                    timer.rounds--;
+                } else {
+                    cancel(timer);
+                    due.add(timer);
+                }
+                timer = next;
+            }
+        }
+        // Tasks run outside the lock, so they can reschedule themselves and other threads are not blocked
+        for (int i = 0; i < due.size(); i++) {
+            try {
+                due.get(i).task.run();
+            } catch (Exception e) {
+                Logger.severe("Error in scheduled announcement task: " + e.getMessage(), e);
+            }
+        }
+        due.clear();
+    }
+
+    /**
+     * Number of ticks since the wheel was created
+     */
+    public synchronized long currentTick() {
+        return currentTick;
+    }
+
+    /**
+     * Number of scheduled timers
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    private void insert(Timer timer, long deadline) {
+        int slot = (int) (deadline & mask);
+        timer.deadline = deadline;
+        timer.rounds = (int) ((deadline - currentTick - 1) / slots.length);
+        timer.scheduled = true;
+        // Append, so timers in a slot run in the order they were scheduled
+        Timer tail = tails[slot];
+        if (tail == null) {
+            slots[slot] = timer;
+        } else {
+            tail.next = timer;
+            timer.prev = tail;
+        }
+        tails[slot] = timer;
+        size++;
+    }
+}
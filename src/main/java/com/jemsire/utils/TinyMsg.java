@@ -3,108 +3,311 @@ package com.jemsire.utils;
 import com.hypixel.hytale.protocol.MaybeBool;
 import com.hypixel.hytale.server.core.Message;
 
-import java.awt.Color;
 import java.util.ArrayList;
-import java.util.ArrayDeque;
-import java.util.Deque;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Lightweight TinyMsg-compatible rich text parser for Hytale chat/titles.
- * Supports &lt;color:X&gt;, &lt;gradient:X:Y&gt;, &lt;b&gt;, &lt;i&gt;, &lt;u&gt;, &lt;mono&gt;, &lt;link:url&gt;, &lt;reset&gt;.
+ * Supports &lt;color:X&gt;, &lt;gradient:X:Y&gt;, &lt;b&gt;, &lt;i&gt;, &lt;u&gt;, &lt;mono&gt;, &lt;link:url&gt;, &lt;reset&gt;
+ * and legacy &amp; codes (&amp;a, &amp;l, &amp;#RRGGBB, &amp;x&amp;R&amp;R&amp;G&amp;G&amp;B&amp;B).
  * Embedded in JemAnnouncements to avoid runtime dependency on the external TinyMessage plugin.
  */
 public final class TinyMsg {
 
-    // Matches <tag>, <tag:arg>, </tag>
-    private static final Pattern TAG_PATTERN = Pattern.compile("<(/?)([a-zA-Z0-9_]+)(?::([^>]+))?>");
+    // Interpolated gradient palettes per (stops, length, max segments); cleared when it grows past the limit
+    private static final int PALETTE_CACHE_LIMIT = 512;
+    private static final Map<PaletteKey, int[]> PALETTE_CACHE = new ConcurrentHashMap<>();
+    private static volatile int gradientMaxSegments = 0;
+
+    private record PaletteKey(int[] stops, int length, int maxSegments) {
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof PaletteKey other
+                    && length == other.length
+                    && maxSegments == other.maxSegments
+                    && Arrays.equals(stops, other.stops);
+        }
+
+        @Override
+        public int hashCode() {
+            return (Arrays.hashCode(stops) * 31 + length) * 31 + maxSegments;
+        }
+    }
 
-    private static final Map<String, Color> NAMED_COLORS = new HashMap<>();
+    // Tag kinds for the interned tag-name table
+    private static final int TAG_NAMED_COLOR = 0;
+    private static final int TAG_COLOR = 1;
+    private static final int TAG_GRADIENT = 2;
+    private static final int TAG_BOLD = 3;
+    private static final int TAG_ITALIC = 4;
+    private static final int TAG_UNDERLINE = 5;
+    private static final int TAG_MONOSPACE = 6;
+    private static final int TAG_LINK = 7;
+    private static final int TAG_RESET = 8;
+    private static final int TAG_OFFSET = 9;
+    private static final int TAG_UNKNOWN = -1;
+
+    /**
+     * Interned tag names grouped by length, so a tag in the input can be looked up with
+     * {@link String#regionMatches} instead of allocating a lower-cased substring.
+     */
+    private static final TagEntry[][] TAGS_BY_LENGTH;
+
+    private record TagEntry(String name, int kind, int color) {}
 
     static {
-        // Named colors (Minecraft-style names)
-        NAMED_COLORS.put("black", new Color(0, 0, 0));
-        NAMED_COLORS.put("dark_blue", new Color(0, 0, 170));
-        NAMED_COLORS.put("dark_green", new Color(0, 170, 0));
-        NAMED_COLORS.put("dark_aqua", new Color(0, 170, 170));
-        NAMED_COLORS.put("dark_red", new Color(170, 0, 0));
-        NAMED_COLORS.put("dark_purple", new Color(170, 0, 170));
-        NAMED_COLORS.put("gold", new Color(255, 170, 0));
-        NAMED_COLORS.put("gray", new Color(170, 170, 170));
-        NAMED_COLORS.put("dark_gray", new Color(85, 85, 85));
-        NAMED_COLORS.put("blue", new Color(85, 85, 255));
-        NAMED_COLORS.put("green", new Color(85, 255, 85));
-        NAMED_COLORS.put("aqua", new Color(85, 255, 255));
-        NAMED_COLORS.put("red", new Color(255, 85, 85));
-        NAMED_COLORS.put("light_purple", new Color(255, 85, 255));
-        NAMED_COLORS.put("yellow", new Color(255, 255, 85));
-        NAMED_COLORS.put("white", new Color(255, 255, 255));
+        List<TagEntry> entries = new ArrayList<>();
+        // Named colors are checked before the style tags (so <b> is aqua, as it always has been)
+        for (Map.Entry<String, Integer> named : ColorPalette.namedColors().entrySet()) {
+            entries.add(new TagEntry(named.getKey(), TAG_NAMED_COLOR, named.getValue()));
+        }
         // Legacy Minecraft-style color codes: <0>-<9>, <a>, <b>, <d>-<f> (same as &0-&f; <c> omitted so <c:hex> still works)
-        NAMED_COLORS.put("0", new Color(0, 0, 0));
-        NAMED_COLORS.put("1", new Color(0, 0, 170));
-        NAMED_COLORS.put("2", new Color(0, 170, 0));
-        NAMED_COLORS.put("3", new Color(0, 170, 170));
-        NAMED_COLORS.put("4", new Color(170, 0, 0));
-        NAMED_COLORS.put("5", new Color(170, 0, 170));
-        NAMED_COLORS.put("6", new Color(255, 170, 0));
-        NAMED_COLORS.put("7", new Color(170, 170, 170));
-        NAMED_COLORS.put("8", new Color(85, 85, 85));
-        NAMED_COLORS.put("9", new Color(85, 85, 255));
-        NAMED_COLORS.put("a", new Color(85, 255, 85));
-        NAMED_COLORS.put("b", new Color(85, 255, 255));
-        NAMED_COLORS.put("d", new Color(255, 85, 255));
-        NAMED_COLORS.put("e", new Color(255, 255, 85));
-        NAMED_COLORS.put("f", new Color(255, 255, 255));
-        // "c" not added so <c:red> and <c:#FF0000> still work; use <red> or <color:red> for red
+        for (char code : "0123456789abdef".toCharArray()) {
+            entries.add(new TagEntry(String.valueOf(code), TAG_NAMED_COLOR, ColorPalette.legacy(code)));
+        }
+        addTags(entries, TAG_COLOR, "color", "c", "colour");
+        addTags(entries, TAG_GRADIENT, "grnt", "gradient");
+        addTags(entries, TAG_BOLD, "bold", "b");
+        addTags(entries, TAG_ITALIC, "italic", "i", "em");
+        addTags(entries, TAG_UNDERLINE, "underline", "u");
+        addTags(entries, TAG_MONOSPACE, "monospace", "mono");
+        addTags(entries, TAG_LINK, "link", "url");
+        addTags(entries, TAG_RESET, "reset", "r");
+        addTags(entries, TAG_OFFSET, "offset");
+
+        int maxLength = 0;
+        for (TagEntry entry : entries) {
+            maxLength = Math.max(maxLength, entry.name().length());
+        }
+        List<List<TagEntry>> byLength = new ArrayList<>();
+        for (int i = 0; i <= maxLength; i++) {
+            byLength.add(new ArrayList<>());
+        }
+        for (TagEntry entry : entries) {
+            List<TagEntry> bucket = byLength.get(entry.name().length());
+            // First registration wins, mirroring the named-color-first lookup order
+            boolean duplicate = false;
+            for (TagEntry existing : bucket) {
+                if (existing.name().equals(entry.name())) {
+                    duplicate = true;
+                    break;
+                }
+            }
+            if (!duplicate) {
+                bucket.add(entry);
+            }
+        }
+        TAGS_BY_LENGTH = new TagEntry[maxLength + 1][];
+        for (int i = 0; i <= maxLength; i++) {
+            TAGS_BY_LENGTH[i] = byLength.get(i).toArray(new TagEntry[0]);
+        }
     }
 
-    private record StyleState(
-            Color color,
-            List<Color> gradient,
-            boolean bold,
-            boolean italic,
-            boolean underlined,
-            boolean monospace,
-            String link) {
+    private static void addTags(List<TagEntry> entries, int kind, String... names) {
+        for (String name : names) {
+            entries.add(new TagEntry(name, kind, ColorPalette.NONE));
+        }
+    }
+
+    /**
+     * Style stack backed by parallel arrays. Opening a tag copies the top slot into the next one,
+     * closing a tag just moves the depth back, so no per-tag objects are allocated.
+     */
+    private static final class StyleStack {
+        private static final int BOLD = 1;
+        private static final int ITALIC = 1 << 1;
+        private static final int UNDERLINED = 1 << 2;
+        private static final int MONOSPACE = 1 << 3;
+
+        private int[] colors = newColorSlots(8);
+        private int[][] gradients = new int[8][];
+        private int[] flags = new int[8];
+        private String[] links = new String[8];
+        private int depth = 0;
+
+        void push() {
+            int next = depth + 1;
+            if (next == flags.length) {
+                int size = flags.length * 2;
+                int oldSize = colors.length;
+                colors = Arrays.copyOf(colors, size);
+                Arrays.fill(colors, oldSize, size, ColorPalette.NONE);
+                gradients = Arrays.copyOf(gradients, size);
+                flags = Arrays.copyOf(flags, size);
+                links = Arrays.copyOf(links, size);
+            }
+            colors[next] = colors[depth];
+            gradients[next] = gradients[depth];
+            flags[next] = flags[depth];
+            links[next] = links[depth];
+            depth = next;
+        }
 
-        StyleState() {
-            this(null, null, false, false, false, false, null);
+        void pop() {
+            if (depth > 0) {
+                depth--;
+            }
         }
 
-        StyleState copy() {
-            return new StyleState(color, gradient, bold, italic, underlined, monospace, link);
+        void reset() {
+            depth = 0;
+            colors[0] = ColorPalette.NONE;
+            gradients[0] = null;
+            flags[0] = 0;
+            links[0] = null;
         }
 
-        StyleState withColor(Color color) {
-            return new StyleState(color, null, bold, italic, underlined, monospace, link);
+        void setColor(int color) {
+            colors[depth] = color;
+            gradients[depth] = null;
         }
 
-        StyleState withGradient(List<Color> gradient) {
-            return new StyleState(null, gradient, bold, italic, underlined, monospace, link);
+        void setGradient(int[] gradient) {
+            colors[depth] = ColorPalette.NONE;
+            gradients[depth] = gradient;
         }
 
-        StyleState withBold() {
-            return new StyleState(color, gradient, true, italic, underlined, monospace, link);
+        void addFlag(int flag) {
+            flags[depth] |= flag;
         }
 
-        StyleState withItalic() {
-            return new StyleState(color, gradient, bold, true, underlined, monospace, link);
+        void setLink(String link) {
+            links[depth] = link;
         }
 
-        StyleState withUnderlined() {
-            return new StyleState(color, gradient, bold, italic, true, monospace, link);
+        int color() { return colors[depth]; }
+
+        int[] gradient() { return gradients[depth]; }
+
+        boolean has(int flag) { return (flags[depth] & flag) != 0; }
+
+        String link() { return links[depth]; }
+
+        private static int[] newColorSlots(int size) {
+            int[] slots = new int[size];
+            Arrays.fill(slots, ColorPalette.NONE);
+            return slots;
         }
+    }
 
-        StyleState withMonospace() {
-            return new StyleState(color, gradient, bold, italic, underlined, true, link);
+    /**
+     * A run of text with one style, as the parser emits it (see {@link #runs})
+     * @param color Packed RGB color, or {@link ColorPalette#NONE}
+     */
+    record StyledRun(String text, int color, boolean bold, boolean italic, boolean underlined, boolean monospace, String link) {}
+
+    /**
+     * Output side of a parse: the root message, the style stack and the start of the not yet emitted text.
+     * When building a template, text goes to the template builder instead of the root and placeholders
+     * become slots; the visible width of the static text is measured as it is emitted.
+     */
+    private static final class Output {
+        final Message root = Message.empty();
+        final StyleStack styles = new StyleStack();
+        final MessageTemplate.Builder template;
+        final boolean placeholders;
+        // Receives the styled runs instead of the root message when set
+        final List<StyledRun> runs;
+        int lastIndex = 0;
+        // Text held back across a dropped code (&k, &m, <offset:N>) so it stays one segment, e.g. for gradients
+        StringBuilder carry;
+        int width = 0;
+        int offset = 0;
+        boolean hasOffset = false;
+
+        Output(MessageTemplate.Builder template, boolean placeholders) {
+            this(template, placeholders, null);
         }
 
-        StyleState withLink(String link) {
-            return new StyleState(color, gradient, bold, italic, underlined, monospace, link);
+        Output(MessageTemplate.Builder template, boolean placeholders, List<StyledRun> runs) {
+            this.template = template;
+            this.placeholders = placeholders;
+            this.runs = runs;
+        }
+
+        /**
+         * Emits text from lastIndex up to 'to' with the current style
+         */
+        void flush(String text, int to) {
+            String content;
+            if (carry != null) {
+                content = carry.append(text, lastIndex, to).toString();
+                carry = null;
+            } else {
+                content = to > lastIndex ? text.substring(lastIndex, to) : "";
+            }
+            if (content.isEmpty()) {
+                return;
+            }
+            if (runs != null) {
+                addRuns(content);
+                return;
+            }
+            if (template == null) {
+                root.insert(createStyledMessage(content, styles));
+                return;
+            }
+
+            int slotStart = placeholders ? MessageTemplate.findPlaceholder(content, 0) : -1;
+            if (slotStart < 0) {
+                append(content, 0, content.length(), null);
+                return;
+            }
+            // Split around placeholders; a gradient keeps one palette over the whole run and slots take the color at their position
+            int[] gradient = styles.gradient();
+            int[] palette = gradient != null ? gradientPalette(gradient, content.length()) : null;
+            int last = 0;
+            while (slotStart >= 0) {
+                int slotEnd = MessageTemplate.placeholderEnd(content, slotStart);
+                append(content, last, slotStart, palette);
+                int color = palette != null ? palette[slotStart] : styles.color();
+                template.slot(new MessageTemplate.Slot(content.substring(slotStart, slotEnd), color,
+                        styles.has(StyleStack.BOLD), styles.has(StyleStack.ITALIC),
+                        styles.has(StyleStack.UNDERLINED), styles.has(StyleStack.MONOSPACE), styles.link()));
+                last = slotEnd;
+                slotStart = MessageTemplate.findPlaceholder(content, slotEnd);
+            }
+            append(content, last, content.length(), palette);
+        }
+
+        private void addRuns(String content) {
+            int[] gradient = styles.gradient();
+            int[] palette = gradient != null ? gradientPalette(gradient, content.length()) : null;
+            int runStart = 0;
+            for (int index = 1; index <= content.length(); index++) {
+                if (index < content.length() && (palette == null || palette[index] == palette[runStart])) {
+                    continue;
+                }
+                runs.add(new StyledRun(content.substring(runStart, index), palette != null ? palette[runStart] : styles.color(),
+                        styles.has(StyleStack.BOLD), styles.has(StyleStack.ITALIC), styles.has(StyleStack.UNDERLINED),
+                        styles.has(StyleStack.MONOSPACE), styles.link()));
+                runStart = index;
+            }
+        }
+
+        /**
+         * Holds back text from lastIndex up to 'to' so it is emitted together with the text that follows
+         */
+        void hold(String text, int to) {
+            if (carry == null) {
+                carry = new StringBuilder();
+            }
+            carry.append(text, lastIndex, to);
+        }
+
+        private void append(String content, int from, int to, int[] palette) {
+            if (from >= to) {
+                return;
+            }
+            width += GlyphWidths.width(content, from, to, styles.has(StyleStack.BOLD));
+            if (palette != null) {
+                template.append(applyGradient(content, from, to, palette, styles));
+            } else {
+                template.append(createStyledMessage(from == 0 && to == content.length() ? content : content.substring(from, to), styles));
+            }
         }
     }
 
@@ -113,7 +316,11 @@ public final class TinyMsg {
     }
 
     /**
-     * Parses a string containing TinyMsg formatting tags and converts it into a Hytale Message.
+     * Parses a string containing TinyMsg formatting tags and legacy &amp; codes and converts it into a Hytale Message.
+     * Tags are &lt;name&gt;, &lt;name:arg&gt; or &lt;/name&gt; where name is [a-zA-Z0-9_]+ (case-insensitive);
+     * anything else starting with '&lt;' is kept as literal text.
+     * Legacy codes (&amp;a, &amp;l, &amp;#RRGGBB, &amp;x&amp;R&amp;R&amp;G&amp;G&amp;B&amp;B) are handled in the same pass and behave
+     * like the tag they stand for, so text does not need to be converted to tags first.
      *
      * @param text The string to parse (may be null; treated as empty)
      * @return A formatted Message ready to be sent to players
@@ -122,199 +329,405 @@ public final class TinyMsg {
         if (text == null || text.isEmpty()) {
             return Message.empty();
         }
-        if (!text.contains("<")) {
+        if (nextSpecial(text, 0) < 0) {
             return Message.raw(text);
         }
+        return scan(text, new Output(null, false)).root;
+    }
 
-        Message root = Message.empty();
-        Deque<StyleState> stateStack = new ArrayDeque<>();
-        stateStack.push(new StyleState());
+    /**
+     * Parses text like {@link #parse}, but returns the styled runs that would become the message's children
+     * (a gradient run per color). Lets tests compare parser output without inspecting Message objects.
+     */
+    static List<StyledRun> runs(String text) {
+        List<StyledRun> runs = new ArrayList<>();
+        if (text != null && !text.isEmpty()) {
+            scan(text, new Output(null, false, runs));
+        }
+        return runs;
+    }
 
-        Matcher matcher = TAG_PATTERN.matcher(text);
-        int lastIndex = 0;
+    /**
+     * Parses text like {@link #parse} into a {@link MessageTemplate}. In the same pass the visible width is measured
+     * and the &lt;offset:N&gt; centering adjustment is read; offset tags are never displayed and only the first one counts.
+     *
+     * @param text         The text to parse (may be null; treated as empty)
+     * @param placeholders Whether to split out %placeholders% as slots; if false the template is static
+     * @return The parsed template (not centered; see {@link MessageTemplate#centered()})
+     */
+    public static MessageTemplate parseTemplate(String text, boolean placeholders) {
+        if (text == null || text.isEmpty()) {
+            return MessageTemplate.of(Message.empty());
+        }
+        if (nextSpecial(text, 0) < 0 && (!placeholders || MessageTemplate.findPlaceholder(text, 0) < 0)) {
+            return new MessageTemplate(new Message[]{Message.raw(text)}, new MessageTemplate.Slot[0],
+                    GlyphWidths.width(text, 0, text.length(), false), 0, false);
+        }
+        MessageTemplate.Builder builder = new MessageTemplate.Builder();
+        Output out = scan(text, new Output(builder, placeholders));
+        return builder.build(out.width, out.offset);
+    }
+
+    private static Output scan(String text, Output out) {
+        int special = nextSpecial(text, 0);
+        while (special >= 0) {
+            int end = text.charAt(special) == '<'
+                    ? parseTag(text, special, out)
+                    : parseLegacyCode(text, special, out);
+            if (end < 0) {
+                // Not a tag or code, keep the character as text
+                special = nextSpecial(text, special + 1);
+                continue;
+            }
+            out.lastIndex = end;
+            special = nextSpecial(text, end);
+        }
+        out.flush(text, text.length());
+        return out;
+    }
 
-        while (matcher.find()) {
-            int start = matcher.start();
-            int end = matcher.end();
+    private static int nextSpecial(String text, int from) {
+        for (int i = from, length = text.length(); i < length; i++) {
+            char c = text.charAt(i);
+            if (c == '<' || c == '&') {
+                return i;
+            }
+        }
+        return -1;
+    }
 
-            if (start > lastIndex) {
-                String content = text.substring(lastIndex, start);
-                Message segmentMsg = createStyledMessage(content, stateStack.peek());
-                root.insert(segmentMsg);
+    /**
+     * Parses a tag at tagStart. Pending text before it is flushed with the current style first.
+     * @return The index after the tag, or -1 if there is no valid tag at tagStart
+     */
+    private static int parseTag(String text, int tagStart, Output out) {
+        int length = text.length();
+        int i = tagStart + 1;
+        boolean isClosing = i < length && text.charAt(i) == '/';
+        if (isClosing) {
+            i++;
+        }
+        int nameStart = i;
+        while (i < length && isTagNameChar(text.charAt(i))) {
+            i++;
+        }
+        int nameEnd = i;
+
+        // Find the end of the tag: '>' directly after the name, or ':' followed by a non-empty argument and '>'
+        int tagEnd = -1;
+        int argStart = -1;
+        if (nameEnd > nameStart && nameEnd < length) {
+            char next = text.charAt(nameEnd);
+            if (next == '>') {
+                tagEnd = nameEnd;
+            } else if (next == ':') {
+                int close = text.indexOf('>', nameEnd + 1);
+                if (close > nameEnd + 1) {
+                    argStart = nameEnd + 1;
+                    tagEnd = close;
+                }
             }
+        }
+        if (tagEnd < 0) {
+            return -1;
+        }
 
-            boolean isClosing = "/".equals(matcher.group(1));
-            String tagName = matcher.group(2).toLowerCase();
-            String tagArg = matcher.group(3);
+        if (isClosing) {
+            out.flush(text, tagStart);
+            out.styles.pop();
+            return tagEnd + 1;
+        }
 
-            if (isClosing) {
-                if (stateStack.size() > 1) {
-                    stateStack.pop();
+        TagEntry tag = lookupTag(text, nameStart, nameEnd);
+        if (tag != null && tag.kind() == TAG_OFFSET && isOffsetArg(text, argStart, tagEnd)) {
+            // <offset:N> only adjusts centering; it is dropped without affecting styles
+            out.hold(text, tagStart);
+            if (!out.hasOffset) {
+                out.hasOffset = true;
+                try {
+                    out.offset = Integer.parseInt(text, argStart, tagEnd, 10);
+                } catch (NumberFormatException ignored) {
                 }
-            } else {
-                StyleState currentState = stateStack.peek();
-                StyleState newState = currentState.copy();
-
-                if (NAMED_COLORS.containsKey(tagName)) {
-                    newState = newState.withColor(NAMED_COLORS.get(tagName));
-                } else {
-                    switch (tagName) {
-                        case "color":
-                        case "c":
-                        case "colour":
-                            Color c = parseColorArg(tagArg);
-                            if (c != null) newState = newState.withColor(c);
-                            break;
-
-                        case "grnt":
-                        case "gradient":
-                            if (tagArg != null) {
-                                List<Color> colors = parseGradientColors(tagArg);
-                                if (!colors.isEmpty()) {
-                                    newState = newState.withGradient(colors);
-                                }
-                            }
-                            break;
-
-                        case "bold":
-                        case "b":
-                            newState = newState.withBold();
-                            break;
-
-                        case "italic":
-                        case "i":
-                        case "em":
-                            newState = newState.withItalic();
-                            break;
-
-                        case "underline":
-                        case "u":
-                            newState = newState.withUnderlined();
-                            break;
-
-                        case "monospace":
-                        case "mono":
-                            newState = newState.withMonospace();
-                            break;
-
-                        case "link":
-                        case "url":
-                            if (tagArg != null) newState = newState.withLink(tagArg);
-                            break;
-
-                        case "reset":
-                        case "r":
-                            stateStack.clear();
-                            newState = new StyleState();
-                            break;
-                        default:
-                            break;
+            }
+            return tagEnd + 1;
+        }
+
+        out.flush(text, tagStart);
+        applyTag(text, tag, argStart, tagEnd, out.styles);
+        return tagEnd + 1;
+    }
+
+    /**
+     * Parses a legacy &amp; code at codeStart. Pending text before it is flushed with the current style first.
+     * Color and style codes push a style level like the equivalent tag; &amp;r resets; &amp;k and &amp;m are dropped.
+     * @return The index after the code, or -1 if there is no valid code at codeStart
+     */
+    private static int parseLegacyCode(String text, int codeStart, Output out) {
+        StyleStack styles = out.styles;
+        int length = text.length();
+        if (codeStart + 1 >= length) {
+            return -1;
+        }
+        char code = text.charAt(codeStart + 1);
+
+        // &#RRGGBB
+        if (code == '#' && codeStart + 8 <= length) {
+            int rgb = ColorPalette.parseHexDigits(text, codeStart + 2, 1, 6);
+            if (rgb != ColorPalette.NONE) {
+                out.flush(text, codeStart);
+                styles.push();
+                styles.setColor(rgb);
+                return codeStart + 8;
+            }
+        }
+
+        // &x&R&R&G&G&B&B
+        if (code == 'x' && codeStart + 14 <= length) {
+            int rgb = ColorPalette.parseHexDigits(text, codeStart + 3, 2, 6);
+            if (rgb != ColorPalette.NONE) {
+                for (int i = codeStart + 2; i < codeStart + 14; i += 2) {
+                    if (text.charAt(i) != '&') {
+                        rgb = ColorPalette.NONE;
+                        break;
                     }
                 }
-                stateStack.push(newState);
             }
+            if (rgb != ColorPalette.NONE) {
+                out.flush(text, codeStart);
+                styles.push();
+                styles.setColor(rgb);
+                return codeStart + 14;
+            }
+        }
 
-            lastIndex = end;
+        int color = ColorPalette.legacy(code);
+        if (color != ColorPalette.NONE) {
+            out.flush(text, codeStart);
+            styles.push();
+            styles.setColor(color);
+            return codeStart + 2;
         }
 
-        if (lastIndex < text.length()) {
-            String content = text.substring(lastIndex);
-            Message segmentMsg = createStyledMessage(content, stateStack.peek());
-            root.insert(segmentMsg);
+        char lower = Character.toLowerCase(code);
+        switch (lower) {
+            case 'l', 'n', 'o' -> {
+                out.flush(text, codeStart);
+                styles.push();
+                styles.addFlag(lower == 'l' ? StyleStack.BOLD : lower == 'n' ? StyleStack.UNDERLINED : StyleStack.ITALIC);
+            }
+            case 'r' -> {
+                out.flush(text, codeStart);
+                styles.reset();
+            }
+            case 'k', 'm' -> out.hold(text, codeStart); // obfuscated/strikethrough are not supported
+            default -> {
+                return -1;
+            }
         }
+        return codeStart + 2;
+    }
 
-        return root;
+    private static boolean isTagNameChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
     }
 
-    private static Message createStyledMessage(String content, StyleState state) {
-        if (state.gradient != null && !state.gradient.isEmpty()) {
-            return applyGradient(content, state);
+    private static TagEntry lookupTag(String text, int nameStart, int nameEnd) {
+        int nameLength = nameEnd - nameStart;
+        if (nameLength >= TAGS_BY_LENGTH.length) {
+            return null;
         }
+        for (TagEntry entry : TAGS_BY_LENGTH[nameLength]) {
+            if (text.regionMatches(true, nameStart, entry.name(), 0, nameLength)) {
+                return entry;
+            }
+        }
+        return null;
+    }
 
-        Message msg = Message.raw(content);
+    /**
+     * Checks for an &lt;offset:N&gt; argument: an optional '-' followed by digits
+     */
+    private static boolean isOffsetArg(String text, int argStart, int argEnd) {
+        if (argStart < 0) {
+            return false;
+        }
+        int i = argStart < argEnd && text.charAt(argStart) == '-' ? argStart + 1 : argStart;
+        if (i == argEnd) {
+            return false;
+        }
+        for (; i < argEnd; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Applies an opening tag: pushes a copy of the current style and modifies it.
+     * Unknown tags still push, so that their closing tag pops the right level.
+     */
+    private static void applyTag(String text, TagEntry tag, int argStart, int tagEnd, StyleStack styles) {
+        int kind = tag != null ? tag.kind() : TAG_UNKNOWN;
+        String tagArg = argStart >= 0 ? text.substring(argStart, tagEnd) : null;
 
-        if (state.color != null) msg.color(state.color);
-        if (state.bold) msg.bold(true);
-        if (state.italic) msg.italic(true);
-        if (state.monospace) msg.monospace(true);
-        if (state.underlined) msg.getFormattedMessage().underlined = MaybeBool.True;
-        if (state.link != null) msg.link(state.link);
+        if (kind == TAG_RESET) {
+            styles.reset();
+            return;
+        }
 
-        return msg;
+        styles.push();
+        switch (kind) {
+            case TAG_NAMED_COLOR -> styles.setColor(tag.color());
+            case TAG_COLOR -> {
+                int c = parseColorArg(tagArg);
+                if (c != ColorPalette.NONE) styles.setColor(c);
+            }
+            case TAG_GRADIENT -> {
+                if (tagArg != null) {
+                    int[] colors = parseGradientColors(tagArg);
+                    if (colors.length > 0) {
+                        styles.setGradient(colors);
+                    }
+                }
+            }
+            case TAG_BOLD -> styles.addFlag(StyleStack.BOLD);
+            case TAG_ITALIC -> styles.addFlag(StyleStack.ITALIC);
+            case TAG_UNDERLINE -> styles.addFlag(StyleStack.UNDERLINED);
+            case TAG_MONOSPACE -> styles.addFlag(StyleStack.MONOSPACE);
+            case TAG_LINK -> {
+                if (tagArg != null) styles.setLink(tagArg);
+            }
+            default -> {
+            }
+        }
     }
 
-    private static Message applyGradient(String text, StyleState state) {
-        Message container = Message.empty();
-        List<Color> colors = state.gradient;
-        int length = text.length();
+    private static Message createStyledMessage(String content, StyleStack state) {
+        int[] gradient = state.gradient();
+        if (gradient != null) {
+            return applyGradient(content, gradient, state);
+        }
 
-        for (int index = 0; index < length; index++) {
-            char ch = text.charAt(index);
-            float progress = length <= 1 ? 0f : index / (float) (length - 1);
-            Color color = interpolateColor(colors, progress);
+        Message msg = Message.raw(content);
 
-            Message charMsg = Message.raw(String.valueOf(ch)).color(color);
+        if (state.color() != ColorPalette.NONE) msg.color(ColorPalette.toHex(state.color()));
+        applyStyle(msg, state);
 
-            if (state.bold) charMsg.bold(true);
-            if (state.italic) charMsg.italic(true);
-            if (state.monospace) charMsg.monospace(true);
-            if (state.underlined) charMsg.getFormattedMessage().underlined = MaybeBool.True;
-            if (state.link != null) charMsg.link(state.link);
+        return msg;
+    }
 
-            container.insert(charMsg);
-        }
-        return container;
+    private static void applyStyle(Message msg, StyleStack state) {
+        if (state.has(StyleStack.BOLD)) msg.bold(true);
+        if (state.has(StyleStack.ITALIC)) msg.italic(true);
+        if (state.has(StyleStack.MONOSPACE)) msg.monospace(true);
+        if (state.has(StyleStack.UNDERLINED)) msg.getFormattedMessage().underlined = MaybeBool.True;
+        if (state.link() != null) msg.link(state.link());
     }
 
-    private static Color parseColorArg(String arg) {
-        if (arg == null) return null;
-        arg = arg.trim();
-        if (NAMED_COLORS.containsKey(arg)) {
-            return NAMED_COLORS.get(arg);
+    /**
+     * Applies a gradient to text. Adjacent characters that end up with the same color are merged
+     * into one segment, so with {@link #setGradientMaxSegments} set a line never has more than that many children.
+     */
+    private static Message applyGradient(String text, int[] colors, StyleStack state) {
+        return applyGradient(text, 0, text.length(), gradientPalette(colors, text.length()), state);
+    }
+
+    /**
+     * Applies a gradient palette to text[from, to), where palette has one color per character of the whole text
+     */
+    private static Message applyGradient(String text, int from, int to, int[] palette, StyleStack state) {
+        Message container = Message.empty();
+        int runStart = from;
+        for (int index = from + 1; index <= to; index++) {
+            if (index < to && palette[index] == palette[runStart]) {
+                continue;
+            }
+            Message segment = Message.raw(text.substring(runStart, index)).color(ColorPalette.toHex(palette[runStart]));
+            applyStyle(segment, state);
+            container.insert(segment);
+            runStart = index;
         }
-        return parseHexColor(arg);
+        return container;
     }
 
-    private static List<Color> parseGradientColors(String arg) {
-        List<Color> colors = new ArrayList<>();
-        for (String part : arg.split(":")) {
-            Color c = parseColorArg(part.trim());
-            if (c != null) colors.add(c);
+    /**
+     * Sets the maximum number of color segments per gradient run (0 = one color per character).
+     * Clears the palette cache since cached palettes were built for the previous value.
+     */
+    public static void setGradientMaxSegments(int maxSegments) {
+        int value = Math.max(0, maxSegments);
+        if (value != gradientMaxSegments) {
+            gradientMaxSegments = value;
+            PALETTE_CACHE.clear();
         }
-        return colors;
     }
 
-    private static Color parseHexColor(String hex) {
-        if (hex == null) return null;
-        try {
-            String clean = hex.replace("#", "").trim();
-            if (clean.length() == 6) {
-                int r = Integer.parseInt(clean.substring(0, 2), 16);
-                int g = Integer.parseInt(clean.substring(2, 4), 16);
-                int b = Integer.parseInt(clean.substring(4, 6), 16);
-                return new Color(r, g, b);
+    /**
+     * Gets the per-character RGB colors for a gradient of the given length, from the cache if possible.
+     */
+    private static int[] gradientPalette(int[] stops, int length) {
+        int maxSegments = gradientMaxSegments;
+        PaletteKey key = new PaletteKey(stops, length, maxSegments);
+        int[] palette = PALETTE_CACHE.get(key);
+        if (palette == null) {
+            palette = buildPalette(stops, length, maxSegments);
+            if (PALETTE_CACHE.size() >= PALETTE_CACHE_LIMIT) {
+                PALETTE_CACHE.clear();
             }
-            return null;
-        } catch (Exception e) {
-            return null;
+            PALETTE_CACHE.put(key, palette);
         }
+        return palette;
     }
 
-    private static Color interpolateColor(List<Color> colors, float progress) {
-        if (colors == null || colors.isEmpty()) return null;
-        if (colors.size() == 1) return colors.getFirst();
-        float clampedProgress = Math.max(0f, Math.min(1f, progress));
-        float scaledProgress = clampedProgress * (colors.size() - 1);
-        int index = Math.min((int) scaledProgress, colors.size() - 2);
-        float localProgress = scaledProgress - index;
+    private static int[] buildPalette(int[] stops, int length, int maxSegments) {
+        int[] palette = new int[length];
+        if (maxSegments <= 0 || length <= maxSegments) {
+            for (int index = 0; index < length; index++) {
+                float progress = length <= 1 ? 0f : index / (float) (length - 1);
+                palette[index] = ColorPalette.interpolate(stops, progress);
+            }
+            return palette;
+        }
 
-        Color c1 = colors.get(index);
-        Color c2 = colors.get(index + 1);
+        // Quantize: characters are split into maxSegments buckets, each colored at the bucket's center
+        for (int bucket = 0; bucket < maxSegments; bucket++) {
+            int from = (int) ((long) bucket * length / maxSegments);
+            int to = (int) ((long) (bucket + 1) * length / maxSegments);
+            float center = (from + to - 1) / 2f;
+            int rgb = ColorPalette.interpolate(stops, center / (length - 1));
+            Arrays.fill(palette, from, to, rgb);
+        }
+        return palette;
+    }
 
-        int r = (int) (c1.getRed() + (c2.getRed() - c1.getRed()) * localProgress);
-        int g = (int) (c1.getGreen() + (c2.getGreen() - c1.getGreen()) * localProgress);
-        int b = (int) (c1.getBlue() + (c2.getBlue() - c1.getBlue()) * localProgress);
+    private static int parseColorArg(String arg) {
+        if (arg == null) return ColorPalette.NONE;
+        arg = arg.trim();
+        int named = ColorPalette.named(arg);
+        if (named != ColorPalette.NONE) {
+            return named;
+        }
+        // Legacy digit/letter names (e.g. <color:a>), except "c"
+        if (arg.length() == 1 && arg.charAt(0) != 'c' && !Character.isUpperCase(arg.charAt(0))) {
+            int legacy = ColorPalette.legacy(arg.charAt(0));
+            if (legacy != ColorPalette.NONE) {
+                return legacy;
+            }
+        }
+        return ColorPalette.parseHex(arg);
+    }
 
-        return new Color(r, g, b);
+    private static int[] parseGradientColors(String arg) {
+        int[] colors = new int[4];
+        int count = 0;
+        for (String part : arg.split(":")) {
+            int c = parseColorArg(part.trim());
+            if (c == ColorPalette.NONE) continue;
+            if (count == colors.length) colors = Arrays.copyOf(colors, count * 2);
+            colors[count++] = c;
+        }
+        return Arrays.copyOf(colors, count);
     }
 }
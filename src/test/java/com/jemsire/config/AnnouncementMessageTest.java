@@ -0,0 +1,26 @@
+package com.jemsire.config;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AnnouncementMessageTest {
+
+    private static int weight(String json) {
+        return AnnouncementMessage.fromJson(json).getWeight();
+    }
+
+    @Test
+    void weightFallsBackToPriority() {
+        assertEquals(4, weight("{\"Priority\": 4}"));
+        assertEquals(2, weight("{\"Priority\": 4, \"Weight\": 2}"));
+        assertEquals(4, weight("{\"Priority\": 4, \"Weight\": null}"));
+    }
+
+    @Test
+    void weightIsAtLeastOne() {
+        assertEquals(1, weight("{}"));
+        assertEquals(1, weight("{\"Priority\": -3}"));
+        assertEquals(1, weight("{\"Priority\": 4, \"Weight\": 0}"));
+    }
+}
@@ -0,0 +1,93 @@
+package com.jemsire.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AliasTableTest {
+
+    private static final long SEED = 42L;
+    private static final int SAMPLES = 200_000;
+
+    private static int[] counts(int[] weights) {
+        AliasTable table = new AliasTable(weights);
+        SplitMix64 random = new SplitMix64(SEED);
+        int[] counts = new int[weights.length];
+        for (int i = 0; i < SAMPLES; i++) {
+            counts[table.sample(random)]++;
+        }
+        return counts;
+    }
+
+    /**
+     * Checks that each index was drawn about as often as its share of the total weight
+     */
+    private static void assertFrequencies(int[] weights, double[] expectedShares) {
+        int[] counts = counts(weights);
+        for (int i = 0; i < weights.length; i++) {
+            double share = counts[i] / (double) SAMPLES;
+            assertEquals(expectedShares[i], share, 0.01, "index " + i);
+        }
+    }
+
+    @Test
+    void samplesInProportionToWeights() {
+        assertFrequencies(new int[]{5, 1, 1, 3}, new double[]{0.5, 0.1, 0.1, 0.3});
+        assertFrequencies(new int[]{1, 2, 3, 4, 5, 6, 7, 8}, new double[]{1 / 36.0, 2 / 36.0, 3 / 36.0, 4 / 36.0,
+                5 / 36.0, 6 / 36.0, 7 / 36.0, 8 / 36.0});
+    }
+
+    @Test
+    void weightsOfOneAreUniform() {
+        assertFrequencies(new int[]{1, 1, 1, 1}, new double[]{0.25, 0.25, 0.25, 0.25});
+        // Weights below 1 count as 1
+        assertFrequencies(new int[]{1, 0, -5}, new double[]{1 / 3.0, 1 / 3.0, 1 / 3.0});
+    }
+
+    @Test
+    void heavilySkewedWeightsStillReachTheLightOnes() {
+        int[] counts = counts(new int[]{1_000, 1});
+        assertTrue(counts[1] > 0, "light index never drawn");
+        assertEquals(1 / 1001.0, counts[1] / (double) SAMPLES, 0.001);
+    }
+
+    @Test
+    void singleEntryIsAlwaysDrawn() {
+        AliasTable table = new AliasTable(new int[]{7});
+        SplitMix64 random = new SplitMix64(SEED);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(0, table.sample(random));
+        }
+        assertEquals(1, table.size());
+    }
+
+    @Test
+    void emptyTableHasNoSample() {
+        AliasTable table = new AliasTable(new int[0]);
+        assertEquals(-1, table.sample(new SplitMix64(SEED)));
+        assertEquals(0, table.size());
+    }
+
+    @Test
+    void sameSeedGivesSameSequence() {
+        AliasTable table = new AliasTable(new int[]{5, 1, 1, 3});
+        SplitMix64 first = new SplitMix64(SEED);
+        SplitMix64 second = new SplitMix64(SEED);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(table.sample(first), table.sample(second));
+        }
+    }
+
+    @Test
+    void splitMix64MatchesTheReferenceAndContinuesFromItsState() {
+        SplitMix64 random = new SplitMix64(0L);
+        assertEquals(0xE220A8397B1DCDAFL, random.nextLong());
+        assertEquals(0x6E789E6AA1B965F4L, random.nextLong());
+
+        SplitMix64 restored = new SplitMix64(random.state());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(random.nextLong(), restored.nextLong());
+        }
+    }
+}
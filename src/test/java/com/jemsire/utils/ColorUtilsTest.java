@@ -0,0 +1,94 @@
+package com.jemsire.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Pins {@link ColorUtils#stripColorCodes} to the output of the previous regex implementation,
+ * except for the documented differences.
+ */
+class ColorUtilsTest {
+
+    private static final String[] SAME_AS_LEGACY = {
+            "",
+            "Plain text without codes",
+            "&aGreen &cRed &lBold&r normal",
+            "&AUPPER &FCASE &KMAGIC &Rreset",
+            "&zNot a code & neither is this &",
+            "&#FF0000Red &#00ff00green",
+            "&#FF00 too short",
+            "#FF0000Red #abc short #12 kept #GGGGGG kept",
+            "#1234567 seven digits",
+            "<color:red>Red</color> <bold>bold</bold> <gradient:#FF0000:#0000FF>fade</gradient>",
+            "<> empty tag, a < b and c > d",
+            "unterminated <tag",
+            "Visit www.example.com & win #1 prize!",
+            "&6&l>> &eServer restart in &c5 &eminutes &6&l<<",
+            "{player} has {online}/{max} players",
+            "Ünïcödé &btext ✓ 漢字"
+    };
+
+    @Test
+    void matchesLegacyImplementation() {
+        for (String text : SAME_AS_LEGACY) {
+            assertEquals(legacyStrip(text), ColorUtils.stripColorCodes(text), text);
+        }
+    }
+
+    @Test
+    void returnsInputWhenNothingIsStripped() {
+        String text = "Nothing to strip here";
+        assertSame(text, ColorUtils.stripColorCodes(text));
+    }
+
+    @Test
+    void removesLegacyHexCompletely() {
+        // Before: the single-char pass ate the &R pairs first and left "&x" behind
+        assertEquals("&xRed", legacyStrip("&x&F&F&0&0&0&0Red"));
+        assertEquals("Red", ColorUtils.stripColorCodes("&x&F&F&0&0&0&0Red"));
+    }
+
+    @Test
+    void doesNotRescanAfterRemoval() {
+        // Before: removing "&a" joined "&" and "#A1B2C3" into "&#A1B2C3", which a later pass removed
+        assertEquals("", legacyStrip("&&a#A1B2C3"));
+        assertEquals("&", ColorUtils.stripColorCodes("&&a#A1B2C3"));
+    }
+
+    @Test
+    void onlyAsciiHexDigitsAreColors() {
+        String arabicIndic = "&#٣٣٣٣٣٣text";
+        String fullwidth = "#ＡＢＣ";
+        assertEquals(arabicIndic, ColorUtils.stripColorCodes(arabicIndic));
+        assertEquals(fullwidth, ColorUtils.stripColorCodes(fullwidth));
+        assertEquals(ColorPalette.NONE, ColorUtils.parseHexColor("٣٣٣٣٣٣"));
+        assertEquals(ColorPalette.NONE, ColorUtils.parseColor("&#٣٣٣٣٣٣"));
+        assertEquals(0xA1B2C3, ColorUtils.parseHexColor("#a1B2c3"));
+    }
+
+    @Test
+    void visibleWidthMatchesStrippedLength() {
+        for (String text : SAME_AS_LEGACY) {
+            assertEquals(ColorUtils.stripColorCodes(text).length(), ColorUtils.getVisibleWidthForCentering(text), text);
+        }
+        assertEquals(3, ColorUtils.getVisibleWidthForCentering("&x&F&F&0&0&0&0Red"));
+    }
+
+    /**
+     * The previous implementation, kept as the reference
+     */
+    private static String legacyStrip(String text) {
+        if (text == null || text.isEmpty()) {
+            return text;
+        }
+        String s = text.replaceAll("(?i)<[^>]+>", "");
+        s = s.replaceAll("(?i)&[0-9a-fk-or]", "");
+        s = s.replaceAll("&#[0-9A-Fa-f]{6}", "");
+        s = s.replaceAll("&x(&[0-9A-Fa-f]){6}", "");
+        s = s.replaceAll("#[0-9A-Fa-f]{6}", "");
+        s = s.replaceAll("#[0-9A-Fa-f]{3}", "");
+        return s;
+    }
+}
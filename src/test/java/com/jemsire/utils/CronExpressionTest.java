@@ -0,0 +1,92 @@
+package com.jemsire.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CronExpressionTest {
+
+    private static ZonedDateTime at(String time) {
+        return ZonedDateTime.of(LocalDateTime.parse(time), ZoneOffset.UTC);
+    }
+
+    private static void assertNext(String cron, String after, String expected) {
+        assertEquals(at(expected), CronExpression.parse(cron).next(at(after)), cron + " after " + after);
+    }
+
+    @Test
+    void nextIsStrictlyLaterAndOnTheMinute() {
+        assertNext("* * * * *", "2026-10-17T10:07:00", "2026-10-17T10:08:00");
+        assertNext("* * * * *", "2026-10-17T10:07:59.999", "2026-10-17T10:08:00");
+        assertNext("15 * * * *", "2026-10-17T10:15:30", "2026-10-17T11:15:00");
+    }
+
+    @Test
+    void steps() {
+        assertNext("*/15 * * * *", "2026-10-17T10:07:00", "2026-10-17T10:15:00");
+        assertNext("*/15 * * * *", "2026-10-17T10:45:00", "2026-10-17T11:00:00");
+        assertNext("0-30/10 * * * *", "2026-10-17T10:31:00", "2026-10-17T11:00:00");
+        // "5/15" runs from 5 to the end of the range
+        assertNext("5/15 * * * *", "2026-10-17T10:36:00", "2026-10-17T10:50:00");
+        assertNext("5/15 * * * *", "2026-10-17T10:50:00", "2026-10-17T11:05:00");
+        assertNext("0 */6 * * *", "2026-10-17T19:00:00", "2026-10-18T00:00:00");
+    }
+
+    @Test
+    void rangeAndListCombinations() {
+        assertNext("5,20-22 9 * * *", "2026-10-17T09:06:00", "2026-10-17T09:20:00");
+        assertNext("5,20-22 9 * * *", "2026-10-17T09:21:00", "2026-10-17T09:22:00");
+        assertNext("5,20-22 9 * * *", "2026-10-17T09:22:00", "2026-10-18T09:05:00");
+        assertNext("0 8-10,18 * * *", "2026-10-17T10:00:00", "2026-10-17T18:00:00");
+        assertNext("0,30 1-3/2 * * *", "2026-10-17T01:30:00", "2026-10-17T03:00:00");
+    }
+
+    @Test
+    void dayOfMonthOrDayOfWeekWhenBothAreSet() {
+        // 2026-10-17 is a Saturday; the next Friday comes before the next 13th
+        assertNext("0 12 13 * 5", "2026-10-17T13:00:00", "2026-10-23T12:00:00");
+        // After Friday 2026-12-11 the 13th (a Sunday) comes first
+        assertNext("0 12 13 * 5", "2026-12-11T12:00:00", "2026-12-13T12:00:00");
+        // Only one day field restricted: that one alone decides
+        assertNext("0 12 13 * *", "2026-10-17T13:00:00", "2026-11-13T12:00:00");
+        assertNext("0 12 * * 5", "2026-12-11T12:00:00", "2026-12-18T12:00:00");
+    }
+
+    @Test
+    void sundayIsZeroAndSeven() {
+        assertNext("0 0 * * 0", "2026-10-17T10:00:00", "2026-10-18T00:00:00");
+        assertNext("0 0 * * 7", "2026-10-17T10:00:00", "2026-10-18T00:00:00");
+        assertNext("0 0 * * 6-7", "2026-10-17T10:00:00", "2026-10-18T00:00:00");
+    }
+
+    @Test
+    void rollsOverMonthsAndYears() {
+        assertNext("0 0 1 * *", "2026-12-15T00:00:00", "2027-01-01T00:00:00");
+        assertNext("59 23 31 12 *", "2026-12-31T23:59:00", "2027-12-31T23:59:00");
+        // February and April have no 31st
+        assertNext("0 0 31 * *", "2026-01-31T00:00:00", "2026-03-31T00:00:00");
+        assertNext("0 0 31 * *", "2026-03-31T00:00:00", "2026-05-31T00:00:00");
+        assertNext("30 23 * 2 *", "2026-02-28T23:30:00", "2027-02-01T23:30:00");
+        assertNext("0 9 * 1,7 *", "2026-01-31T10:00:00", "2026-07-01T09:00:00");
+        assertNext("0 0 29 2 *", "2026-01-01T00:00:00", "2028-02-29T00:00:00");
+    }
+
+    @Test
+    void noMatchWithinTheSearchWindow() {
+        assertNull(CronExpression.parse("0 0 30 2 *").next(at("2026-01-01T00:00:00")));
+    }
+
+    @Test
+    void rejectsInvalidExpressions() {
+        for (String cron : new String[]{null, "", "* * * *", "* * * * * *", "60 * * * *", "* 24 * * *", "* * 0 * *",
+                "* * * 13 *", "* * * * 8", "5-1 * * * *", "*/0 * * * *", "MON * * * *", "1-x * * * *"}) {
+            assertThrows(IllegalArgumentException.class, () -> CronExpression.parse(cron));
+        }
+    }
+}
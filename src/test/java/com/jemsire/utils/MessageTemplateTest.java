@@ -0,0 +1,179 @@
+package com.jemsire.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MessageTemplateTest {
+
+    private static final String[] NO_VALUES = new String[0];
+
+    /**
+     * The previous centering: (80 - visible characters) / 2 + offset spaces
+     */
+    private static int baselinePadding(String text, int offset) {
+        return Math.max(0, (80 - ColorUtils.getVisibleWidthForCentering(text)) / 2 + offset);
+    }
+
+    private static int padding(String text) {
+        return TinyMsg.parseTemplate(text, false).centered().padding(NO_VALUES);
+    }
+
+    /**
+     * Text of average-width glyphs (no narrow ones like i, l, t, ':' or '!') must pad exactly as before
+     */
+    @Test
+    void centersPlainTextLikeTheCharacterCount() {
+        String[] lines = {
+                "A",
+                "HELLO WORLD",
+                "WELCOME ON OUR SERVER",
+                "Have a good game",
+                "VOTE ON SUNDAYS FOR 2026 REWARDS",
+                "<red>RED</red> and <gold>GOLD</gold>",
+                "<gradient:#FF0000:#0000FF>GRADIENT ACROSS THE WHOLE LINE</gradient>",
+                "ABCDEFGHJKMNOPQRSUVWXYZ ABCDEFGHJKMNOPQRSUVWXYZ ABCDEFGHJKMNOPQRSUVWXYZ ABCDEFGH",
+        };
+        for (String line : lines) {
+            assertEquals(baselinePadding(line, 0), padding(line), line);
+        }
+    }
+
+    @Test
+    void appliesOffsetLikeBefore() {
+        assertEquals(baselinePadding("HELLO", 3), padding("<offset:3>HELLO"));
+        assertEquals(baselinePadding("HELLO", -2), padding("HELLO<offset:-2>"));
+        assertEquals(0, padding("<offset:-99>HELLO"));
+    }
+
+    @Test
+    void padsLinesWithoutVisibleText() {
+        assertEquals(40, padding("<red></red>"));
+        assertEquals(45, padding("<offset:5><bold></bold>"));
+    }
+
+    @Test
+    void measuresNarrowAndWideGlyphs() {
+        // Narrow glyphs take less room than one character, wide ones more
+        assertTrue(padding("iiiiiiiiii") > baselinePadding("iiiiiiiiii", 0));
+        assertTrue(padding("漢字漢字漢字") < baselinePadding("漢字漢字漢字", 0));
+        assertTrue(padding("<bold>BOLD TEXT HERE</bold>") < baselinePadding("BOLD TEXT HERE", 0));
+    }
+
+    @Test
+    void uncenteredTemplatesAreNotPadded() {
+        assertEquals(0, TinyMsg.parseTemplate("HELLO", false).padding(NO_VALUES));
+    }
+
+    private static List<String> placeholders(MessageTemplate template) {
+        return Arrays.stream(template.slots()).map(MessageTemplate.Slot::placeholder).toList();
+    }
+
+    @Test
+    void splitsAdjacentPlaceholders() {
+        MessageTemplate template = TinyMsg.parseTemplate("%a%%b%", true);
+        assertEquals(List.of("%a%", "%b%"), placeholders(template));
+        assertFalse(template.isStatic());
+        assertNull(template.message());
+    }
+
+    @Test
+    void keepsUnclosedPercentAsText() {
+        assertTrue(TinyMsg.parseTemplate("100% done", true).isStatic());
+        assertTrue(TinyMsg.parseTemplate("%%", true).isStatic());
+        assertTrue(TinyMsg.parseTemplate("%not an id%", true).isStatic());
+        assertEquals(List.of("%player%"), placeholders(TinyMsg.parseTemplate("50% off for %player%", true)));
+        // "b%" after the first placeholder has no opening '%' of its own
+        assertEquals(List.of("%a%"), placeholders(TinyMsg.parseTemplate("%a%b%", true)));
+    }
+
+    @Test
+    void acceptsIdPunctuation() {
+        String id = "%server_online-count.total:2%";
+        assertEquals(List.of(id), placeholders(TinyMsg.parseTemplate("Online: " + id + "!", true)));
+        assertEquals(List.of("%x%"), placeholders(TinyMsg.parseTemplate("%a/b% %x%", true)));
+    }
+
+    @Test
+    void placeholdersStayTextWhenDisabled() {
+        MessageTemplate template = TinyMsg.parseTemplate("Hi %player%", false);
+        assertTrue(template.isStatic());
+        assertNotNull(template.message());
+    }
+
+    @Test
+    void slotsTakeTheSurroundingStyle() {
+        MessageTemplate.Slot slot = TinyMsg.parseTemplate("<red><bold>%player%</bold></red>", true).slots()[0];
+        assertEquals(ColorPalette.named("red"), slot.color());
+        assertTrue(slot.bold());
+    }
+
+    @Test
+    void resolvesEachSlotOncePerRender() {
+        MessageTemplate template = TinyMsg.parseTemplate("<gold>%a%</gold> and %b% and %a%", true);
+        List<String> resolved = new ArrayList<>();
+        template.render(placeholder -> {
+            resolved.add(placeholder);
+            return "x";
+        });
+        assertEquals(List.of("%a%", "%b%", "%a%"), resolved);
+    }
+
+    @Test
+    void centersLineWithSlot() {
+        MessageTemplate template = TinyMsg.parseTemplate("Hello %player%", true).centered();
+        int width = GlyphWidths.width("Hello Steve", 0, 11, false);
+        assertEquals((80 * GlyphWidths.DEFAULT - width) / 2 / GlyphWidths.SPACE, template.padding(new String[]{"Steve"}));
+        // A plain-glyph value pads like the old character count of the resolved line
+        assertEquals(baselinePadding("HELLO STEVE", 0), TinyMsg.parseTemplate("HELLO %player%", true).centered().padding(new String[]{"STEVE"}));
+        // A longer value gets less padding
+        assertTrue(template.padding(new String[]{"Steve"}) > template.padding(new String[]{"Somebody with a long name"}));
+    }
+
+    @Test
+    void boldSlotsAreMeasuredBold() {
+        MessageTemplate plain = TinyMsg.parseTemplate("%player%", true).centered();
+        MessageTemplate bold = TinyMsg.parseTemplate("<bold>%player%</bold>", true).centered();
+        String[] value = {"ABCDEFGHJKABCDEFGHJKABCDEFGHJK"};
+        assertTrue(bold.padding(value) < plain.padding(value));
+    }
+
+    @Test
+    void centeredIsIdempotent() {
+        MessageTemplate centered = TinyMsg.parseTemplate("Hi %player%", true).centered();
+        assertSame(centered, centered.centered());
+    }
+
+    @Test
+    void joinKeepsSlotsOfAllLines() {
+        MessageTemplate first = TinyMsg.parseTemplate("Hi %player%", true).centered();
+        MessageTemplate second = TinyMsg.parseTemplate("static line", true);
+        MessageTemplate third = TinyMsg.parseTemplate("%a% %b%", true);
+        MessageTemplate joined = MessageTemplate.join(List.of(first, second, third));
+        assertEquals(List.of("%player%", "%a%", "%b%"), placeholders(joined));
+        assertSame(joined, joined.centered());
+        assertSame(first, MessageTemplate.join(List.of(first)));
+
+        MessageTemplate allStatic = MessageTemplate.join(List.of(second, TinyMsg.parseTemplate("another", true)));
+        assertTrue(allStatic.isStatic());
+        assertNotNull(allStatic.message());
+    }
+
+    @Test
+    void plainTemplatesSplitPlaceholders() {
+        MessageTemplate title = MessageTemplate.plain("Welcome %player%!", true);
+        assertEquals(List.of("%player%"), placeholders(title));
+        assertEquals(ColorPalette.NONE, title.slots()[0].color());
+        assertTrue(MessageTemplate.plain("Welcome %player%!", false).isStatic());
+        assertTrue(MessageTemplate.plain(null, true).isStatic());
+    }
+}
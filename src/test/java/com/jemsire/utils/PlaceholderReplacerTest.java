@@ -0,0 +1,74 @@
+package com.jemsire.utils;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class PlaceholderReplacerTest {
+
+    private static String render(String value) {
+        return PlaceholderReplacer.replacePlaceholders("{\"text\":\"{value}\"}", Map.of("value", value));
+    }
+
+    /**
+     * The value read back by a JSON parser
+     */
+    private static String roundTrip(String value) {
+        JsonObject object = JsonParser.parseString(render(value)).getAsJsonObject();
+        return object.get("text").getAsString();
+    }
+
+    @Test
+    void escapesQuotesAndBackslashes() {
+        assertEquals("{\"text\":\"say \\\"hi\\\"\"}", render("say \"hi\""));
+        assertEquals("{\"text\":\"C:\\\\dir\\\\\"}", render("C:\\dir\\"));
+        assertEquals("a\\\"b\\\\\"c", roundTrip("a\\\"b\\\\\"c"));
+    }
+
+    @Test
+    void escapesControlCharacters() {
+        assertEquals("{\"text\":\"a\\nb\\rc\\td\\be\\ff\"}", render("a\nb\rc\td\be\ff"));
+        assertEquals("{\"text\":\"\\u0000\\u001f\\u0007\"}", render("\u0000\u001f\u0007"));
+        String all = new String(new char[]{0, 1, 8, 9, 10, 12, 13, 27, 31, ' '});
+        assertEquals(all, roundTrip(all));
+    }
+
+    @Test
+    void escapesLineAndParagraphSeparators() {
+        assertEquals("{\"text\":\"a\\u2028b\\u2029c\"}", render("a\u2028b\u2029c"));
+        assertEquals("a\u2028b", roundTrip("a\u2028b"));
+    }
+
+    @Test
+    void keepsOtherCharacters() {
+        assertEquals("{\"text\":\"héllo 漢字 \uD83D\uDE00 /<>\"}", render("héllo 漢字 \uD83D\uDE00 /<>"));
+    }
+
+    @Test
+    void replacesOnlySimpleIdentifiers() {
+        Map<String, String> values = new HashMap<>();
+        values.put("player", "Steve");
+        values.put("a_1", "x");
+        assertEquals("{\"a\":\"Steve\",\"b\":{\"c\":1},\"d\":\"{ player }{}x{missing}\"}",
+                PlaceholderReplacer.replacePlaceholders(
+                        "{\"a\":\"{player}\",\"b\":{\"c\":1},\"d\":\"{ player }{}{a_1}{missing}\"}", values));
+        assertEquals("SteveSteve{Steve", PlaceholderReplacer.replacePlaceholders("{player}{player}{{player}", values));
+    }
+
+    @Test
+    void returnsInputWhenNothingIsReplaced() {
+        String json = "{\"text\":\"{missing}\"}";
+        assertSame(json, PlaceholderReplacer.replacePlaceholders(json, Map.of("player", "Steve")));
+        assertSame(json, PlaceholderReplacer.replacePlaceholders(json, Map.of()));
+        assertSame(json, PlaceholderReplacer.replacePlaceholders(json, null));
+        assertNull(PlaceholderReplacer.replacePlaceholders(null, Map.of("player", "Steve")));
+        assertEquals("", PlaceholderReplacer.replacePlaceholders("", Map.of("player", "Steve")));
+    }
+}
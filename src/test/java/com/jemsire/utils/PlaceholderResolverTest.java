@@ -0,0 +1,124 @@
+package com.jemsire.utils;
+
+import com.hypixel.hytale.server.core.universe.PlayerRef;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PlaceholderResolverTest {
+
+    private static final UUID ALICE = UUID.randomUUID();
+    private static final UUID BOB = UUID.randomUUID();
+
+    /**
+     * Records every lookup; resolves everything except placeholders containing "unknown" and the first
+     * {@code refusals} lookups (like an expansion that needs a player)
+     */
+    private static final class CountingLookup implements PlaceholderResolver.Lookup {
+        final List<String> calls = new ArrayList<>();
+        int refusals;
+
+        @Override
+        public String lookup(PlayerRef player, String placeholder) {
+            calls.add(placeholder);
+            if (placeholder.contains("unknown") || refusals-- > 0) {
+                return placeholder;
+            }
+            return "value";
+        }
+    }
+
+    @AfterEach
+    void restoreDefaults() {
+        PlaceholderResolver.setGlobalPrefixes(PlaceholderResolver.DEFAULT_GLOBAL_PREFIXES);
+    }
+
+    /**
+     * Renders the chat line, notification and title of one announcement for a player, like MessageSender does
+     */
+    private static void renderAll(PlaceholderResolver resolver, UUID player) {
+        MessageTemplate chat = TinyMsg.parseTemplate("<gold>Hi %player_name%</gold>, %server_online% online", true).centered();
+        MessageTemplate notification = MessageTemplate.plain("Welcome %player_name%", true);
+        MessageTemplate title = TinyMsg.parseTemplate("%player_name% (%player_world%)", true);
+        for (MessageTemplate template : List.of(chat, notification, title)) {
+            template.render(placeholder -> resolver.resolve(player, null, placeholder));
+        }
+    }
+
+    @Test
+    void resolvesPerPlayerValuesOnceAcrossChannels() {
+        PlaceholderResolver.setGlobalPrefixes(new String[]{"server_"});
+        CountingLookup lookup = new CountingLookup();
+        PlaceholderResolver resolver = new PlaceholderResolver(lookup);
+
+        renderAll(resolver, ALICE);
+        assertEquals(List.of("%player_name%", "%server_online%", "%player_world%"), lookup.calls);
+
+        renderAll(resolver, ALICE);
+        assertEquals(3, lookup.calls.size());
+    }
+
+    @Test
+    void resolvesGlobalsOncePerBroadcast() {
+        PlaceholderResolver.setGlobalPrefixes(new String[]{"server_"});
+        CountingLookup lookup = new CountingLookup();
+        PlaceholderResolver resolver = new PlaceholderResolver(lookup);
+
+        renderAll(resolver, ALICE);
+        renderAll(resolver, BOB);
+        assertEquals(1, lookup.calls.stream().filter("%server_online%"::equals).count());
+        assertEquals(2, lookup.calls.stream().filter("%player_name%"::equals).count());
+
+        // A new broadcast resolves again
+        renderAll(new PlaceholderResolver(lookup), ALICE);
+        assertEquals(2, lookup.calls.stream().filter("%server_online%"::equals).count());
+    }
+
+    @Test
+    void cachesUnresolvedValues() {
+        CountingLookup lookup = new CountingLookup();
+        PlaceholderResolver resolver = new PlaceholderResolver(lookup);
+        assertEquals("%unknown%", resolver.resolve(ALICE, null, "%unknown%"));
+        assertEquals("%unknown%", resolver.resolve(ALICE, null, "%unknown%"));
+        assertEquals(1, lookup.calls.size());
+    }
+
+    @Test
+    void resolvesGlobalsAgainstARecipientWhenTheyNeedOne() {
+        PlaceholderResolver.setGlobalPrefixes(new String[]{"server_"});
+        CountingLookup lookup = new CountingLookup();
+        lookup.refusals = 1;
+
+        assertEquals("value", new PlaceholderResolver(lookup).resolve(ALICE, null, "%server_online%"));
+        assertEquals(2, lookup.calls.size());
+        // Not tried without a player again
+        assertEquals("value", new PlaceholderResolver(lookup).resolve(ALICE, null, "%server_online%"));
+        assertEquals(3, lookup.calls.size());
+    }
+
+    @Test
+    void matchesGlobalPrefixesIgnoringCase() {
+        PlaceholderResolver.setGlobalPrefixes(new String[]{" Server_ ", "", null});
+        assertTrue(PlaceholderResolver.isGlobal("%server_online%"));
+        assertTrue(PlaceholderResolver.isGlobal("%SERVER_name%"));
+        assertFalse(PlaceholderResolver.isGlobal("%player_name%"));
+        assertFalse(PlaceholderResolver.isGlobal("%server%"));
+
+        PlaceholderResolver.setGlobalPrefixes(null);
+        assertFalse(PlaceholderResolver.isGlobal("%server_online%"));
+    }
+
+    @Test
+    void defaultsCoverOwnAndServerPlaceholders() {
+        assertTrue(PlaceholderResolver.isGlobal("%jemannouncements_interval%"));
+        assertTrue(PlaceholderResolver.isGlobal("%server_online%"));
+        assertFalse(PlaceholderResolver.isGlobal("%player_name%"));
+    }
+}
@@ -0,0 +1,206 @@
+package com.jemsire.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RotationStateTest {
+
+    @TempDir
+    Path dir;
+
+    @AfterEach
+    void closeState() {
+        RotationState.close();
+    }
+
+    private Path file() {
+        return dir.resolve("rotation-state.bin");
+    }
+
+    private Path reopen() {
+        RotationState.close();
+        assertTrue(RotationState.open(file()));
+        return file();
+    }
+
+    private static void assertEmpty(RotationState.Snapshot state) {
+        assertEquals(0, state.sequentialIndex());
+        assertEquals(0L, state.randomState());
+        assertEquals(0, state.bagOrder().length);
+        assertEquals(-1, state.bagLast());
+        assertEquals(0, state.roundRobin().length);
+    }
+
+    /**
+     * Overwrites bytes of the state file at an offset
+     */
+    private void patch(long offset, ByteBuffer bytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(file(), StandardOpenOption.WRITE)) {
+            channel.write(bytes, offset);
+        }
+    }
+
+    @Test
+    void reopensWhatWasWritten() {
+        assertTrue(RotationState.open(file()));
+        assertEmpty(RotationState.snapshot());
+        RotationState.writeSequentialIndex(5);
+        RotationState.writeRandom(123456789L);
+        RotationState.writeShuffleBag(11L, new int[]{2, 0, 1}, 2, 0);
+        RotationState.writeRoundRobin(22L, new int[]{-2, 1, 1});
+        RotationState.writeLastFired("welcome.json", 1_000L);
+        RotationState.writeLastFired("vote.json", 2_000L);
+
+        reopen();
+        RotationState.Snapshot state = RotationState.snapshot();
+        assertEquals(5, state.sequentialIndex());
+        assertEquals(123456789L, state.randomState());
+        assertEquals(11L, state.bagFingerprint());
+        assertArrayEquals(new int[]{2, 0, 1}, state.bagOrder());
+        assertEquals(2, state.bagPosition());
+        assertEquals(0, state.bagLast());
+        assertEquals(22L, state.roundRobinFingerprint());
+        assertArrayEquals(new int[]{-2, 1, 1}, state.roundRobin());
+        assertEquals(1_000L, RotationState.lastFired("welcome.json"));
+        assertEquals(2_000L, RotationState.lastFired("vote.json"));
+        assertEquals(0L, RotationState.lastFired("unknown.json"));
+    }
+
+    @Test
+    void growsTheTimeTable() throws IOException {
+        assertTrue(RotationState.open(file()));
+        RotationState.writeSequentialIndex(3);
+        long sizeBefore = Files.size(file());
+        for (int i = 0; i < 1000; i++) {
+            RotationState.writeLastFired("message-" + i + ".json", 10_000L + i);
+        }
+        assertTrue(Files.size(file()) > sizeBefore);
+
+        reopen();
+        assertEquals(3, RotationState.snapshot().sequentialIndex());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(10_000L + i, RotationState.lastFired("message-" + i + ".json"));
+        }
+    }
+
+    @Test
+    void growsForMoreMessagesThanTheCapacity() {
+        assertTrue(RotationState.open(file()));
+        RotationState.writeSequentialIndex(7);
+        RotationState.writeRandom(99L);
+        RotationState.writeRoundRobin(5L, new int[]{1, 2, 3});
+        RotationState.writeLastFired("kept.json", 42L);
+
+        int[] order = IntStream.range(0, 200).map(i -> 199 - i).toArray();
+        RotationState.writeShuffleBag(8L, order, 1, 199);
+        int[] current = IntStream.range(0, 150).toArray();
+        RotationState.writeRoundRobin(6L, current);
+
+        reopen();
+        RotationState.Snapshot state = RotationState.snapshot();
+        assertEquals(7, state.sequentialIndex());
+        assertEquals(99L, state.randomState());
+        assertArrayEquals(order, state.bagOrder());
+        assertEquals(199, state.bagLast());
+        assertArrayEquals(current, state.roundRobin());
+        assertEquals(6L, state.roundRobinFingerprint());
+        assertEquals(42L, RotationState.lastFired("kept.json"));
+    }
+
+    @Test
+    void startsOverOnACorruptHeader() throws IOException {
+        assertTrue(RotationState.open(file()));
+        RotationState.writeSequentialIndex(4);
+        RotationState.writeLastFired("a.json", 1L);
+        RotationState.close();
+
+        patch(0, ByteBuffer.allocate(4).putInt(0, 0xDEADBEEF));
+        reopen();
+        assertEmpty(RotationState.snapshot());
+        assertEquals(0L, RotationState.lastFired("a.json"));
+        // The new file works
+        RotationState.writeSequentialIndex(9);
+        reopen();
+        assertEquals(9, RotationState.snapshot().sequentialIndex());
+    }
+
+    @Test
+    void startsOverOnAHeaderThatDoesNotFitTheFile() throws IOException {
+        assertTrue(RotationState.open(file()));
+        RotationState.writeSequentialIndex(4);
+        RotationState.close();
+
+        // Capacity larger than the file
+        patch(8, ByteBuffer.allocate(4).putInt(0, 1 << 20));
+        reopen();
+        assertEmpty(RotationState.snapshot());
+        RotationState.writeSequentialIndex(4);
+        RotationState.close();
+
+        // Time slot count that is not a usable power of two
+        patch(12, ByteBuffer.allocate(4).putInt(0, Integer.MIN_VALUE));
+        reopen();
+        assertEmpty(RotationState.snapshot());
+    }
+
+    @Test
+    void startsOverOnAShortFile() throws IOException {
+        Files.write(file(), new byte[10]);
+        assertTrue(RotationState.open(file()));
+        assertEmpty(RotationState.snapshot());
+        RotationState.writeLastFired("a.json", 5L);
+        reopen();
+        assertEquals(5L, RotationState.lastFired("a.json"));
+    }
+
+    @Test
+    void retainsOnlyCurrentNames() {
+        assertTrue(RotationState.open(file()));
+        List<String> kept = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            String name = "message-" + i + ".json";
+            RotationState.writeLastFired(name, 1_000L + i);
+            if (i % 3 == 0) {
+                kept.add(name);
+            }
+        }
+        RotationState.retainLastFired(kept);
+
+        for (int i = 0; i < 200; i++) {
+            long expected = i % 3 == 0 ? 1_000L + i : 0L;
+            assertEquals(expected, RotationState.lastFired("message-" + i + ".json"));
+        }
+        // Dropped names can be written again, and the rebuilt table survives a reopen
+        RotationState.writeLastFired("message-1.json", 5L);
+        reopen();
+        assertEquals(5L, RotationState.lastFired("message-1.json"));
+        assertEquals(1_000L, RotationState.lastFired("message-0.json"));
+        assertEquals(0L, RotationState.lastFired("message-2.json"));
+    }
+
+    @Test
+    void doesNothingWhileClosed() {
+        RotationState.close();
+        assertNull(RotationState.snapshot());
+        RotationState.writeSequentialIndex(1);
+        RotationState.writeLastFired("a.json", 1L);
+        RotationState.retainLastFired(List.of());
+        assertEquals(0L, RotationState.lastFired("a.json"));
+    }
+}
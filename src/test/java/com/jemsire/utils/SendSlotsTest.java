@@ -0,0 +1,119 @@
+package com.jemsire.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SendSlotsTest {
+
+    private static final long TIMEOUT_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    /**
+     * A send that ignores interrupts and only returns once released
+     */
+    private static int stuck(CountDownLatch started, CountDownLatch release) {
+        started.countDown();
+        while (true) {
+            try {
+                if (release.await(10, TimeUnit.SECONDS)) {
+                    return MessageSender.SENT;
+                }
+            } catch (InterruptedException ignored) {
+                // Keeps going like a send blocked in a write that cannot be interrupted
+            }
+        }
+    }
+
+    private static Thread start(SendSlots slots, IntSupplier send, List<Integer> outcomes, CountDownLatch done) {
+        return Thread.ofVirtual().start(() -> slots.run(send, outcome -> {
+            outcomes.add(outcome);
+            done.countDown();
+        }));
+    }
+
+    @Test
+    void stuckRecipientDoesNotHoldItsSlot() throws InterruptedException {
+        SendSlots slots = new SendSlots(1, TIMEOUT_NANOS);
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Integer> stuckOutcome = new CopyOnWriteArrayList<>();
+        List<Integer> outcomes = new CopyOnWriteArrayList<>();
+        CountDownLatch stuckReported = new CountDownLatch(1);
+        CountDownLatch othersDone = new CountDownLatch(3);
+        int abandonedBefore = SendSlots.abandonedCount();
+
+        Thread stuckThread = start(slots, () -> stuck(sending, release), stuckOutcome, stuckReported);
+        assertTrue(sending.await(5, TimeUnit.SECONDS));
+        long started = System.nanoTime();
+        for (int i = 0; i < 3; i++) {
+            start(slots, () -> MessageSender.SENT, outcomes, othersDone);
+        }
+
+        // The other recipients get the only slot once the stuck send passes its deadline, while it is still running
+        assertTrue(othersDone.await(5, TimeUnit.SECONDS), "others were not sent to");
+        assertTrue(System.nanoTime() - started < TimeUnit.SECONDS.toNanos(2));
+        assertEquals(List.of(MessageSender.SENT, MessageSender.SENT, MessageSender.SENT), outcomes);
+        assertTrue(stuckReported.await(1, TimeUnit.SECONDS));
+        assertEquals(List.of(MessageSender.TIMED_OUT), stuckOutcome);
+        assertTrue(stuckThread.isAlive());
+        assertEquals(abandonedBefore + 1, SendSlots.abandonedCount());
+
+        // Once the stuck send returns it is no longer tracked and is not reported a second time
+        release.countDown();
+        stuckThread.join(5000);
+        assertEquals(abandonedBefore, SendSlots.abandonedCount());
+        assertEquals(List.of(MessageSender.TIMED_OUT), stuckOutcome);
+    }
+
+    @Test
+    void reportsEachSendOnce() throws InterruptedException {
+        SendSlots slots = new SendSlots(2, TIMEOUT_NANOS);
+        List<Integer> outcomes = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(20);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        for (int i = 0; i < 20; i++) {
+            int outcome = i % 2 == 0 ? MessageSender.SENT : MessageSender.FAILED;
+            start(slots, () -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    return MessageSender.FAILED;
+                } finally {
+                    running.decrementAndGet();
+                }
+                return outcome;
+            }, outcomes, done);
+        }
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        Thread.sleep(TimeUnit.NANOSECONDS.toMillis(TIMEOUT_NANOS) * 2);
+        assertEquals(20, outcomes.size());
+        assertEquals(10, outcomes.stream().filter(o -> o == MessageSender.SENT).count());
+        assertTrue(maxRunning.get() <= 2, "more sends than slots ran at once");
+    }
+
+    @Test
+    void failingSendCountsAsFailed() throws InterruptedException {
+        SendSlots slots = new SendSlots(1, 0);
+        List<Integer> outcomes = new CopyOnWriteArrayList<>();
+        CountDownLatch first = new CountDownLatch(1);
+        start(slots, () -> {
+            throw new IllegalStateException("connection closed");
+        }, outcomes, first);
+        assertTrue(first.await(5, TimeUnit.SECONDS));
+        // The failed send gave its slot back
+        CountDownLatch second = new CountDownLatch(1);
+        start(slots, () -> MessageSender.SENT, outcomes, second);
+        assertTrue(second.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(MessageSender.FAILED, MessageSender.SENT), outcomes);
+    }
+}
@@ -0,0 +1,124 @@
+package com.jemsire.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ShuffleBagTest {
+
+    private static final long FINGERPRINT = 1L;
+
+    /**
+     * Returns scripted values from nextInt(bound)
+     */
+    private static final class Scripted implements RandomGenerator {
+        private final Deque<Integer> values = new ArrayDeque<>();
+
+        Scripted(Integer... values) {
+            this.values.addAll(List.of(values));
+        }
+
+        @Override
+        public int nextInt(int bound) {
+            int value = values.removeFirst();
+            assertTrue(value >= 0 && value < bound, "scripted value out of bounds");
+            return value;
+        }
+
+        @Override
+        public long nextLong() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static int[] draw(ShuffleBag bag, int size, int count, RandomGenerator random) {
+        int[] drawn = new int[count];
+        for (int i = 0; i < count; i++) {
+            drawn[i] = bag.next(size, FINGERPRINT, random);
+        }
+        return drawn;
+    }
+
+    @Test
+    void movesThePreviousLastAwayFromTheFront() {
+        ShuffleBag bag = new ShuffleBag();
+        // Round 1 keeps 0 1 2. Round 2 shuffles to 2 1 0, which would repeat 2; the guard swaps it with position 2.
+        Scripted random = new Scripted(2, 1, 0, 1, 1);
+        assertArrayEquals(new int[]{0, 1, 2, 0, 1, 2}, draw(bag, 3, 6, random));
+    }
+
+    @Test
+    void neverRepeatsAcrossRefills() {
+        for (int size = 2; size <= 6; size++) {
+            for (long seed = 0; seed < 50; seed++) {
+                ShuffleBag bag = new ShuffleBag();
+                int[] drawn = draw(bag, size, size * 40, new SplitMix64(seed));
+                for (int i = 1; i < drawn.length; i++) {
+                    assertNotEquals(drawn[i - 1], drawn[i]);
+                }
+            }
+        }
+    }
+
+    @Test
+    void drawsEveryIndexOncePerRound() {
+        for (int size = 1; size <= 7; size++) {
+            ShuffleBag bag = new ShuffleBag();
+            int[] drawn = draw(bag, size, size * 30, new SplitMix64(size));
+            for (int round = 0; round < 30; round++) {
+                boolean[] seen = new boolean[size];
+                for (int i = 0; i < size; i++) {
+                    int index = drawn[round * size + i];
+                    assertTrue(!seen[index], "index " + index + " twice in round " + round);
+                    seen[index] = true;
+                }
+            }
+        }
+    }
+
+    @Test
+    void startsANewBagWhenTheSetChanges() {
+        ShuffleBag bag = new ShuffleBag();
+        SplitMix64 random = new SplitMix64(7L);
+        bag.next(4, FINGERPRINT, random);
+        bag.next(4, FINGERPRINT, random);
+        assertEquals(2, bag.position());
+
+        bag.next(4, FINGERPRINT + 1, random);
+        assertEquals(1, bag.position());
+        bag.next(5, FINGERPRINT + 1, random);
+        assertEquals(1, bag.position());
+        assertEquals(5, bag.order().length);
+        assertEquals(-1, bag.next(0, FINGERPRINT, random));
+    }
+
+    @Test
+    void restoredBagContinuesTheRound() {
+        ShuffleBag bag = new ShuffleBag();
+        SplitMix64 random = new SplitMix64(3L);
+        draw(bag, 5, 7, random);
+
+        ShuffleBag restored = new ShuffleBag();
+        restored.restore(bag.order().clone(), bag.position(), bag.last(), bag.fingerprint());
+        SplitMix64 restoredRandom = new SplitMix64(random.state());
+        assertArrayEquals(draw(bag, 5, 20, random), draw(restored, 5, 20, restoredRandom));
+    }
+
+    @Test
+    void ignoresInvalidSavedBags() {
+        ShuffleBag bag = new ShuffleBag();
+        bag.restore(new int[]{0, 0, 1}, 0, -1, FINGERPRINT);
+        bag.restore(new int[]{0, 3, 1}, 0, -1, FINGERPRINT);
+        bag.restore(new int[]{0, 1, 2}, 4, -1, FINGERPRINT);
+        bag.restore(new int[]{0, 1, 2}, 0, 3, FINGERPRINT);
+        assertEquals(0, bag.order().length);
+    }
+}
@@ -0,0 +1,88 @@
+package com.jemsire.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SmoothWeightedRoundRobinTest {
+
+    private static final long FINGERPRINT = 1L;
+
+    private static String picks(SmoothWeightedRoundRobin rr, int[] weights, long fingerprint, int count) {
+        StringBuilder picks = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            picks.append((char) ('A' + rr.next(weights, fingerprint)));
+        }
+        return picks.toString();
+    }
+
+    @Test
+    void spreadsHeavyWeightsEvenly() {
+        SmoothWeightedRoundRobin rr = new SmoothWeightedRoundRobin();
+        int[] weights = {5, 1, 1};
+        assertEquals("AABACAA", picks(rr, weights, FINGERPRINT, 7));
+        // The next cycle repeats it
+        assertEquals("AABACAA", picks(rr, weights, FINGERPRINT, 7));
+    }
+
+    @Test
+    void picksEachIndexAsOftenAsItsWeightPerCycle() {
+        int[] weights = {3, 2, 1, 4, 1};
+        SmoothWeightedRoundRobin rr = new SmoothWeightedRoundRobin();
+        for (int cycle = 0; cycle < 3; cycle++) {
+            int[] counts = new int[weights.length];
+            for (int i = 0; i < 11; i++) {
+                counts[rr.next(weights, FINGERPRINT)]++;
+            }
+            assertArrayEquals(weights, counts);
+        }
+    }
+
+    @Test
+    void equalWeightsTakeTurns() {
+        assertEquals("ABCABC", picks(new SmoothWeightedRoundRobin(), new int[]{1, 1, 1}, FINGERPRINT, 6));
+        assertEquals("AAAA", picks(new SmoothWeightedRoundRobin(), new int[]{3}, FINGERPRINT, 4));
+        assertEquals(-1, new SmoothWeightedRoundRobin().next(new int[0], FINGERPRINT));
+    }
+
+    @Test
+    void changedWeightsStartOver() {
+        SmoothWeightedRoundRobin rr = new SmoothWeightedRoundRobin();
+        picks(rr, new int[]{5, 1, 1}, FINGERPRINT, 3);
+        // The current weights are reset, so the new weights begin their cycle from the start
+        assertEquals("ABACABA", picks(rr, new int[]{4, 2, 1}, FINGERPRINT, 7));
+        assertEquals("ABACABA", picks(new SmoothWeightedRoundRobin(), new int[]{4, 2, 1}, FINGERPRINT, 7));
+    }
+
+    @Test
+    void changedSetStartsOver() {
+        SmoothWeightedRoundRobin rr = new SmoothWeightedRoundRobin();
+        int[] weights = {5, 1, 1};
+        assertEquals("AAB", picks(rr, weights, FINGERPRINT, 3));
+        assertEquals("AABACAA", picks(rr, weights, FINGERPRINT + 1, 7));
+    }
+
+    @Test
+    void equalWeightsInANewArrayCarryOn() {
+        SmoothWeightedRoundRobin rr = new SmoothWeightedRoundRobin();
+        assertEquals("AAB", picks(rr, new int[]{5, 1, 1}, FINGERPRINT, 3));
+        assertEquals("ACAA", picks(rr, new int[]{5, 1, 1}, FINGERPRINT, 4));
+    }
+
+    @Test
+    void restoredWeightsCarryOn() {
+        SmoothWeightedRoundRobin rr = new SmoothWeightedRoundRobin();
+        int[] weights = {5, 1, 1};
+        picks(rr, weights, FINGERPRINT, 3);
+
+        SmoothWeightedRoundRobin restored = new SmoothWeightedRoundRobin();
+        restored.restore(weights, rr.current().clone(), FINGERPRINT);
+        assertEquals("ACAA", picks(restored, weights, FINGERPRINT, 4));
+
+        // Saved current weights for a different number of messages are ignored
+        SmoothWeightedRoundRobin mismatched = new SmoothWeightedRoundRobin();
+        mismatched.restore(new int[]{5, 1}, rr.current().clone(), FINGERPRINT);
+        assertEquals("AABACAA", picks(mismatched, weights, FINGERPRINT, 7));
+    }
+}
@@ -0,0 +1,135 @@
+package com.jemsire.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TimingWheelTest {
+
+    private static final int SLOTS = 512;
+
+    /**
+     * Ticks the wheel until the given tick
+     */
+    private static void tickUntil(TimingWheel wheel, long tick) {
+        while (wheel.currentTick() < tick) {
+            wheel.tick();
+        }
+    }
+
+    /**
+     * A task that logs its name and the tick it ran at
+     */
+    private static Runnable record(TimingWheel wheel, List<String> log, String name) {
+        return () -> log.add(name + "@" + wheel.currentTick());
+    }
+
+    @Test
+    void runsDelaysWithinOneTurn() {
+        TimingWheel wheel = new TimingWheel(SLOTS);
+        List<String> log = new ArrayList<>();
+        wheel.schedule(1, record(wheel, log, "a"));
+        wheel.schedule(0, record(wheel, log, "now"));
+        wheel.schedule(511, record(wheel, log, "b"));
+        tickUntil(wheel, 600);
+        assertEquals(List.of("a@1", "now@1", "b@511"), log);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void runsDelaysLongerThanOneTurnOnTime() {
+        TimingWheel wheel = new TimingWheel(SLOTS);
+        List<String> log = new ArrayList<>();
+        // 512, 1024 and 1300 share slots with shorter delays, which must not make them run a turn early
+        wheel.schedule(512, record(wheel, log, "512"));
+        wheel.schedule(513, record(wheel, log, "513"));
+        wheel.schedule(1024, record(wheel, log, "1024"));
+        wheel.schedule(1300, record(wheel, log, "1300"));
+        wheel.schedule(276, record(wheel, log, "276")); // same slot as 1300 and 788
+        tickUntil(wheel, 200);
+        wheel.schedule(588, record(wheel, log, "788")); // scheduled mid-turn
+        tickUntil(wheel, 2000);
+        assertEquals(List.of("276@276", "512@512", "513@513", "788@788", "1024@1024", "1300@1300"), log);
+    }
+
+    @Test
+    void runsTimersOfOneSlotInSchedulingOrder() {
+        TimingWheel wheel = new TimingWheel(SLOTS);
+        List<String> log = new ArrayList<>();
+        wheel.schedule(5 + SLOTS, record(wheel, log, "later"));
+        wheel.schedule(5, record(wheel, log, "first"));
+        wheel.schedule(5, record(wheel, log, "second"));
+        tickUntil(wheel, 5 + SLOTS);
+        assertEquals(List.of("first@5", "second@5", "later@517"), log);
+    }
+
+    @Test
+    void cancelledTimersDoNotRun() {
+        TimingWheel wheel = new TimingWheel(SLOTS);
+        List<String> log = new ArrayList<>();
+        TimingWheel.Timer head = wheel.schedule(10, record(wheel, log, "head"));
+        TimingWheel.Timer middle = wheel.schedule(10, record(wheel, log, "middle"));
+        TimingWheel.Timer tail = wheel.schedule(10, record(wheel, log, "tail"));
+        TimingWheel.Timer far = wheel.schedule(10 + 3 * SLOTS, record(wheel, log, "far"));
+        wheel.schedule(10, record(wheel, log, "kept"));
+        assertEquals(5, wheel.size());
+
+        wheel.cancel(middle);
+        wheel.cancel(head);
+        wheel.cancel(far);
+        wheel.cancel(far); // Twice is a no-op
+        wheel.cancel(null);
+        assertEquals(2, wheel.size());
+
+        tickUntil(wheel, 10);
+        assertEquals(List.of("tail@10", "kept@10"), log);
+        wheel.cancel(tail); // Already ran
+        assertEquals(0, wheel.size());
+
+        // The slot still works after removing from its head, middle and tail
+        wheel.schedule(SLOTS, record(wheel, log, "again"));
+        tickUntil(wheel, 10 + 4 * SLOTS);
+        assertEquals(List.of("tail@10", "kept@10", "again@522"), log);
+    }
+
+    @Test
+    void tasksCanRescheduleAndCancelFromATick() {
+        TimingWheel wheel = new TimingWheel(SLOTS);
+        List<String> log = new ArrayList<>();
+        TimingWheel.Timer victim = wheel.schedule(3, record(wheel, log, "victim"));
+        wheel.schedule(2, () -> {
+            log.add("canceller@" + wheel.currentTick());
+            wheel.cancel(victim);
+            wheel.schedule(700, record(wheel, log, "rescheduled"));
+        });
+        tickUntil(wheel, 1000);
+        assertEquals(List.of("canceller@2", "rescheduled@702"), log);
+    }
+
+    @Test
+    void clearDropsEveryTimer() {
+        TimingWheel wheel = new TimingWheel(SLOTS);
+        List<String> log = new ArrayList<>();
+        TimingWheel.Timer timer = wheel.schedule(5, record(wheel, log, "a"));
+        wheel.schedule(5000, record(wheel, log, "b"));
+        wheel.clear();
+        assertEquals(0, wheel.size());
+        wheel.cancel(timer); // No-op after clear
+        assertEquals(0, wheel.size());
+        tickUntil(wheel, 6000);
+        assertEquals(List.of(), log);
+    }
+
+    @Test
+    void roundsSlotCountUpToAPowerOfTwo() {
+        TimingWheel wheel = new TimingWheel(100);
+        List<String> log = new ArrayList<>();
+        wheel.schedule(128, record(wheel, log, "128"));
+        wheel.schedule(100, record(wheel, log, "100"));
+        tickUntil(wheel, 300);
+        assertEquals(List.of("100@100", "128@128"), log);
+    }
+}
@@ -0,0 +1,193 @@
+package com.jemsire.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Pins the {@link TinyMsg} lexer to the styling produced by the previous regex parser, character by character
+ * (the grouping into child messages differs since gradients are coalesced into color runs).
+ */
+class TinyMsgTest {
+
+    private static final String[] SAME_AS_REGEX_PARSER = {
+            "Plain text",
+            "<red>Red</red> plain",
+            "<GREEN>upper-case tag</green>",
+            "<color:#00FF00>hex</color> <c:red>alias</c> <colour:gold>gold</colour> <color:a>legacy</color>",
+            "<red>a<bold>b<italic>c</italic>d</bold>e</red>f",
+            "<b>b is aqua</b> <bold>bold</bold> <i>i</i> <u>u</u> <mono>m</mono> <em>em</em>",
+            "<red><u><mono>deep</mono></u></red><yellow>next",
+            "<unknown>kept style</unknown> <red>x<foo>y</foo>z</red>",
+            "<red>unclosed to the end",
+            "</red>closing without opening <red>x</red></red></red>y",
+            "<red",
+            "a < b > c and <> and </> and <:red> and <red:>",
+            "<red>a<reset>b <r>c",
+            "\\<red>backslash is not an escape",
+            "<<red>>double brackets",
+            "<link:https://example.com/?a=1>link</link> <url:x>url</url>",
+            "<gradient:#FF0000:#0000FF>Gradient text</gradient> after",
+            "<grnt:red:yellow:green>three stops</grnt>",
+            "<gradient:#FF0000:#0000FF>a<bold>b</bold>c</gradient>",
+            "<gradient:red>single stop</gradient> <gradient:nope>invalid</gradient>",
+            "<0>zero<9>nine<f>white<C>upper c",
+            "<color:#FF000>short hex</color> <color:nothing>bad</color>",
+            "100% <done> 50%",
+    };
+
+    @Test
+    void matchesRegexParser() {
+        for (String text : SAME_AS_REGEX_PARSER) {
+            assertEquals(regexParse(text), flatten(TinyMsg.runs(text)), text);
+        }
+    }
+
+    @Test
+    void emptyInputHasNoRuns() {
+        assertEquals(List.of(), TinyMsg.runs(""));
+        assertEquals(List.of(), TinyMsg.runs(null));
+    }
+
+    /**
+     * One character with its style
+     */
+    private record StyledChar(char c, int color, boolean bold, boolean italic, boolean underlined, boolean monospace, String link) {}
+
+    private static List<StyledChar> flatten(List<TinyMsg.StyledRun> runs) {
+        List<StyledChar> chars = new ArrayList<>();
+        for (TinyMsg.StyledRun run : runs) {
+            for (char c : run.text().toCharArray()) {
+                chars.add(new StyledChar(c, run.color(), run.bold(), run.italic(), run.underlined(), run.monospace(), run.link()));
+            }
+        }
+        return chars;
+    }
+
+    // The previous parser, kept as the reference (colors as packed RGB instead of java.awt.Color)
+
+    private static final Pattern TAG_PATTERN = Pattern.compile("<(/?)([a-zA-Z0-9_]+)(?::([^>]+))?>");
+    private static final Map<String, Integer> NAMED_COLORS = new HashMap<>();
+
+    static {
+        String[] names = {"black", "dark_blue", "dark_green", "dark_aqua", "dark_red", "dark_purple", "gold", "gray",
+                "dark_gray", "blue", "green", "aqua", "red", "light_purple", "yellow", "white"};
+        int[] values = {0x000000, 0x0000AA, 0x00AA00, 0x00AAAA, 0xAA0000, 0xAA00AA, 0xFFAA00, 0xAAAAAA,
+                0x555555, 0x5555FF, 0x55FF55, 0x55FFFF, 0xFF5555, 0xFF55FF, 0xFFFF55, 0xFFFFFF};
+        String codes = "0123456789abcdef";
+        for (int i = 0; i < names.length; i++) {
+            NAMED_COLORS.put(names[i], values[i]);
+            if (codes.charAt(i) != 'c') {
+                NAMED_COLORS.put(String.valueOf(codes.charAt(i)), values[i]);
+            }
+        }
+    }
+
+    private record State(int color, int[] gradient, boolean bold, boolean italic, boolean underlined, boolean monospace, String link) {}
+
+    private static List<StyledChar> regexParse(String text) {
+        List<StyledChar> out = new ArrayList<>();
+        Deque<State> stack = new ArrayDeque<>();
+        stack.push(new State(-1, null, false, false, false, false, null));
+        Matcher matcher = TAG_PATTERN.matcher(text);
+        int lastIndex = 0;
+        while (matcher.find()) {
+            emit(text.substring(lastIndex, matcher.start()), stack.peek(), out);
+            String name = matcher.group(2).toLowerCase();
+            String arg = matcher.group(3);
+            if ("/".equals(matcher.group(1))) {
+                if (stack.size() > 1) {
+                    stack.pop();
+                }
+            } else {
+                State s = stack.peek();
+                State next = s;
+                if (NAMED_COLORS.containsKey(name)) {
+                    next = new State(NAMED_COLORS.get(name), null, s.bold(), s.italic(), s.underlined(), s.monospace(), s.link());
+                } else {
+                    switch (name) {
+                        case "color", "c", "colour" -> {
+                            int c = parseColorArg(arg);
+                            if (c != -1) next = new State(c, null, s.bold(), s.italic(), s.underlined(), s.monospace(), s.link());
+                        }
+                        case "grnt", "gradient" -> {
+                            if (arg != null) {
+                                List<Integer> colors = new ArrayList<>();
+                                for (String part : arg.split(":")) {
+                                    int c = parseColorArg(part.trim());
+                                    if (c != -1) colors.add(c);
+                                }
+                                if (!colors.isEmpty()) {
+                                    int[] stops = colors.stream().mapToInt(Integer::intValue).toArray();
+                                    next = new State(-1, stops, s.bold(), s.italic(), s.underlined(), s.monospace(), s.link());
+                                }
+                            }
+                        }
+                        case "bold", "b" -> next = new State(s.color(), s.gradient(), true, s.italic(), s.underlined(), s.monospace(), s.link());
+                        case "italic", "i", "em" -> next = new State(s.color(), s.gradient(), s.bold(), true, s.underlined(), s.monospace(), s.link());
+                        case "underline", "u" -> next = new State(s.color(), s.gradient(), s.bold(), s.italic(), true, s.monospace(), s.link());
+                        case "monospace", "mono" -> next = new State(s.color(), s.gradient(), s.bold(), s.italic(), s.underlined(), true, s.link());
+                        case "link", "url" -> {
+                            if (arg != null) next = new State(s.color(), s.gradient(), s.bold(), s.italic(), s.underlined(), s.monospace(), arg);
+                        }
+                        case "reset", "r" -> {
+                            stack.clear();
+                            next = new State(-1, null, false, false, false, false, null);
+                        }
+                        default -> {
+                        }
+                    }
+                }
+                stack.push(next);
+            }
+            lastIndex = matcher.end();
+        }
+        emit(text.substring(lastIndex), stack.peek(), out);
+        return out;
+    }
+
+    private static void emit(String content, State state, List<StyledChar> out) {
+        int length = content.length();
+        for (int i = 0; i < length; i++) {
+            int color = state.color();
+            if (state.gradient() != null) {
+                color = interpolate(state.gradient(), length <= 1 ? 0f : i / (float) (length - 1));
+            }
+            out.add(new StyledChar(content.charAt(i), color, state.bold(), state.italic(), state.underlined(), state.monospace(), state.link()));
+        }
+    }
+
+    private static int parseColorArg(String arg) {
+        if (arg == null) return -1;
+        arg = arg.trim();
+        if (NAMED_COLORS.containsKey(arg)) return NAMED_COLORS.get(arg);
+        String clean = arg.replace("#", "").trim();
+        if (clean.length() != 6) return -1;
+        try {
+            return Integer.parseInt(clean, 16);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static int interpolate(int[] colors, float progress) {
+        if (colors.length == 1) return colors[0];
+        float scaled = Math.max(0f, Math.min(1f, progress)) * (colors.length - 1);
+        int index = Math.min((int) scaled, colors.length - 2);
+        float local = scaled - index;
+        int c1 = colors[index], c2 = colors[index + 1];
+        int r = (int) (((c1 >> 16) & 0xFF) + (((c2 >> 16) & 0xFF) - ((c1 >> 16) & 0xFF)) * local);
+        int g = (int) (((c1 >> 8) & 0xFF) + (((c2 >> 8) & 0xFF) - ((c1 >> 8) & 0xFF)) * local);
+        int b = (int) ((c1 & 0xFF) + ((c2 & 0xFF) - (c1 & 0xFF)) * local);
+        return (r << 16) | (g << 8) | b;
+    }
+}